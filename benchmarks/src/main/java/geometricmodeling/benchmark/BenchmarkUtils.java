@@ -0,0 +1,27 @@
+/*
+ * Copyright (c) 2019 Nikita Sokolov. All rights reserved.
+ */
+
+package geometricmodeling.benchmark;
+
+/**
+ * Torus dimensions and view parameters shared by the benchmarks, close to the defaults of the form.
+ */
+final class BenchmarkUtils {
+    static final double MINOR_RADIUS = 20;
+    static final double MAJOR_RADIUS = 60;
+
+    static final double ROTATION = 30;
+    static final double SCALE = 1.5;
+    static final double TRANSLATION = 10;
+
+    static final double RHO = 300;
+    static final double PHI = 30;
+    static final double THETA = 40;
+    static final double D = 400;
+    static final double L = 0.5;
+    static final double ALPHA = 45;
+
+    private BenchmarkUtils() {
+    }
+}
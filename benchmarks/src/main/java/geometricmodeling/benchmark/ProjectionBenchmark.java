@@ -0,0 +1,151 @@
+/*
+ * Copyright (c) 2019 Nikita Sokolov. All rights reserved.
+ */
+
+package geometricmodeling.benchmark;
+
+import geometricmodeling.common.Constants;
+import geometricmodeling.model.Light;
+import geometricmodeling.model.Matrix4;
+import geometricmodeling.model.Projection;
+import geometricmodeling.model.RenderMode;
+import geometricmodeling.model.RenderRequest;
+import geometricmodeling.model.SortOrder;
+import geometricmodeling.model.SurfaceType;
+import geometricmodeling.model.TorusMesh;
+import geometricmodeling.model.Viewport;
+import geometricmodeling.service.FrameRenderer;
+import geometricmodeling.service.RevolutionSurfaceBuilder;
+import geometricmodeling.service.TorusBuilder;
+import geometricmodeling.service.TorusTransformer;
+import geometricmodeling.service.ZBufferRasterizer;
+import geometricmodeling.util.ViewportUtils;
+import javafx.scene.paint.Color;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Headless facet projection of a transformed torus into the views of every projection: the mapping of
+ * the vertices to screen coordinates alone, and the whole frame rasterized into an off-screen buffer
+ * of the canvas size with the depth test, lit or unlit, from the projected mesh or streamed from the
+ * surface builder without a mesh.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProjectionBenchmark {
+    @Param({"30", "10", "2", "1"})
+    private int angle;
+
+    @Param
+    private Projection projection;
+
+    @Param({"false", "true"})
+    private boolean isLit;
+
+    private TorusMesh mesh;
+    private List<Viewport> viewports;
+    private double[] screenX;
+    private double[] screenY;
+    private double[] screenDepth;
+    private ZBufferRasterizer rasterizer;
+    private FrameRenderer frameRenderer;
+    private RenderRequest request;
+    private RevolutionSurfaceBuilder surfaceBuilder;
+    private Matrix4 transformation;
+    private double perspectiveDistance;
+
+    @Setup
+    public void setUp() {
+        TorusTransformer transformer = new TorusTransformer(new TorusBuilder(BenchmarkUtils.MINOR_RADIUS, angle,
+                BenchmarkUtils.MAJOR_RADIUS, angle).buildMesh());
+        transformer.setViewTransformation(BenchmarkUtils.RHO, BenchmarkUtils.PHI, BenchmarkUtils.THETA);
+
+        switch (projection) {
+            case AXONOMETRIC:
+                mesh = transformer.axonometricMesh(BenchmarkUtils.ROTATION, BenchmarkUtils.ROTATION, 0);
+                transformation = transformer.getAxonometricMatrix(BenchmarkUtils.ROTATION, BenchmarkUtils.ROTATION, 0);
+                break;
+            case ORTHOGONAL:
+                mesh = transformer.modelMesh();
+                transformation = transformer.getModelViewMatrix();
+                break;
+            case OBLIQUE:
+                mesh = transformer.obliqueMesh(BenchmarkUtils.L, BenchmarkUtils.ALPHA);
+                transformation = transformer.getObliqueMatrix(BenchmarkUtils.L, BenchmarkUtils.ALPHA);
+                break;
+            case PERSPECTIVE:
+                mesh = transformer.perspectiveMesh(BenchmarkUtils.D);
+                transformation = transformer.getModelViewMatrix();
+                perspectiveDistance = BenchmarkUtils.D;
+                break;
+            default:
+                throw new IllegalArgumentException("There is no such projection.");
+        }
+
+        surfaceBuilder = new RevolutionSurfaceBuilder(SurfaceType.TORUS, BenchmarkUtils.MINOR_RADIUS, angle,
+                BenchmarkUtils.MAJOR_RADIUS, angle);
+        viewports = ViewportUtils.getViewports(projection, Constants.CANVAS_WIDTH, Constants.CANVAS_HEIGHT);
+        screenX = new double[mesh.getVertexCount()];
+        screenY = new double[mesh.getVertexCount()];
+        screenDepth = new double[mesh.getVertexCount()];
+        rasterizer = new ZBufferRasterizer(Constants.CANVAS_WIDTH, Constants.CANVAS_HEIGHT);
+        frameRenderer = new FrameRenderer();
+        request = new RenderRequest.Builder()
+                .projection(projection)
+                .renderMode(RenderMode.Z_BUFFER)
+                .lightSelected(isLit)
+                .color(Color.DODGERBLUE)
+                .ambientLight(Constants.AMBIENT_LIGHT)
+                .lights(Collections.singletonList(new Light(1, 1, 1, Constants.LIGHT_INTENSITY)))
+                .build();
+    }
+
+    @Benchmark
+    public double[] projectVertices() {
+        double[] x = mesh.getX();
+        double[] y = mesh.getY();
+        double[] z = mesh.getZ();
+        int vertexCount = mesh.getVertexCount();
+
+        for (Viewport viewport : viewports) {
+            SortOrder sortOrder = viewport.getSortOrder();
+
+            for (int i = 0; i < vertexCount; i++) {
+                screenX[i] = ViewportUtils.getScreenX(viewport, x[i], z[i]);
+                screenY[i] = ViewportUtils.getScreenY(viewport, y[i], z[i]);
+                screenDepth[i] = ViewportUtils.getDepth(sortOrder, x[i], y[i], z[i]);
+            }
+        }
+
+        return screenDepth;
+    }
+
+    @Benchmark
+    public int[] renderFrame() {
+        frameRenderer.render(rasterizer, mesh, request);
+        return rasterizer.getPixels();
+    }
+
+    @Benchmark
+    public int[] renderStream() {
+        frameRenderer.renderStream(rasterizer, surfaceBuilder, transformation, perspectiveDistance, true, request);
+        return rasterizer.getPixels();
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2019 Nikita Sokolov. All rights reserved.
+ */
+
+package geometricmodeling.benchmark;
+
+import geometricmodeling.model.Plane;
+import geometricmodeling.model.SortOrder;
+import geometricmodeling.model.TorusMesh;
+import geometricmodeling.service.TorusBuilder;
+import geometricmodeling.service.TorusTransformer;
+import geometricmodeling.util.TorusUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Depth sorting of a rotated torus in every sort order. The facet list is sorted in place, so each
+ * call sorts a fresh copy and the copy is part of the measurement.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SortBenchmark {
+    @Param({"30", "10", "2", "1"})
+    private int angle;
+
+    @Param
+    private SortOrder sortOrder;
+
+    private List<Plane> facets;
+    private TorusMesh mesh;
+
+    @Setup
+    public void setUp() throws Exception {
+        TorusBuilder torusBuilder = new TorusBuilder(BenchmarkUtils.MINOR_RADIUS, angle,
+                BenchmarkUtils.MAJOR_RADIUS, angle);
+
+        facets = new TorusTransformer(torusBuilder.build())
+                .rotate(BenchmarkUtils.ROTATION, BenchmarkUtils.ROTATION, 0)
+                .getFacets();
+        mesh = new TorusTransformer(torusBuilder.buildMesh())
+                .rotateMesh(BenchmarkUtils.ROTATION, BenchmarkUtils.ROTATION, 0);
+    }
+
+    @Benchmark
+    public List<Plane> sortFacets() {
+        List<Plane> sortedFacets = new ArrayList<>(facets);
+        TorusUtils.sortFacets(sortedFacets, sortOrder);
+        return sortedFacets;
+    }
+
+    @Benchmark
+    public int[] sortFacetIndices() {
+        return TorusUtils.sortFacetIndices(mesh, sortOrder);
+    }
+}
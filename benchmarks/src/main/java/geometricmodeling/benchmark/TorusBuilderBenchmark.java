@@ -0,0 +1,53 @@
+/*
+ * Copyright (c) 2019 Nikita Sokolov. All rights reserved.
+ */
+
+package geometricmodeling.benchmark;
+
+import geometricmodeling.model.Torus;
+import geometricmodeling.model.TorusMesh;
+import geometricmodeling.service.TorusBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tessellation of the torus into the object model and into the flat mesh.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TorusBuilderBenchmark {
+    @Param({"30", "10", "2", "1"})
+    private int angle;
+
+    private TorusBuilder torusBuilder;
+
+    @Setup
+    public void setUp() {
+        torusBuilder = new TorusBuilder(BenchmarkUtils.MINOR_RADIUS, angle, BenchmarkUtils.MAJOR_RADIUS, angle);
+    }
+
+    @Benchmark
+    public Torus build() throws Exception {
+        return torusBuilder.build();
+    }
+
+    @Benchmark
+    public TorusMesh buildMesh() {
+        return torusBuilder.buildMesh();
+    }
+}
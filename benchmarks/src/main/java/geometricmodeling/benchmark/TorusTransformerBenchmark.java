@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2019 Nikita Sokolov. All rights reserved.
+ */
+
+package geometricmodeling.benchmark;
+
+import geometricmodeling.model.Torus;
+import geometricmodeling.model.TorusMesh;
+import geometricmodeling.service.TorusBuilder;
+import geometricmodeling.service.TorusTransformer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Every transformation of the object model and of the mesh on a single thread. The mesh projections
+ * go through the view transformation, like the perspective view of the form.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TorusTransformerBenchmark {
+    @Param({"30", "10", "2", "1"})
+    private int angle;
+
+    private TorusTransformer torusTransformer;
+    private TorusTransformer meshTransformer;
+
+    @Setup
+    public void setUp() throws Exception {
+        TorusBuilder torusBuilder = new TorusBuilder(BenchmarkUtils.MINOR_RADIUS, angle,
+                BenchmarkUtils.MAJOR_RADIUS, angle);
+        Torus torus = torusBuilder.build();
+        TorusMesh mesh = torusBuilder.buildMesh();
+
+        torusTransformer = new TorusTransformer(torus);
+        meshTransformer = new TorusTransformer(mesh);
+        meshTransformer.setViewTransformation(BenchmarkUtils.RHO, BenchmarkUtils.PHI, BenchmarkUtils.THETA);
+    }
+
+    @Benchmark
+    public Torus rotate() {
+        return torusTransformer.rotate(BenchmarkUtils.ROTATION, BenchmarkUtils.ROTATION, BenchmarkUtils.ROTATION);
+    }
+
+    @Benchmark
+    public Torus scale() {
+        return torusTransformer.scale(BenchmarkUtils.SCALE, BenchmarkUtils.SCALE, BenchmarkUtils.SCALE);
+    }
+
+    @Benchmark
+    public Torus translate() {
+        return torusTransformer.translate(BenchmarkUtils.TRANSLATION, BenchmarkUtils.TRANSLATION,
+                BenchmarkUtils.TRANSLATION);
+    }
+
+    @Benchmark
+    public Torus perspective() {
+        return torusTransformer.perspective(BenchmarkUtils.D);
+    }
+
+    @Benchmark
+    public Torus axonometric() {
+        return torusTransformer.axonometric(BenchmarkUtils.ROTATION, BenchmarkUtils.ROTATION, 0);
+    }
+
+    @Benchmark
+    public Torus oblique() {
+        return torusTransformer.oblique(BenchmarkUtils.L, BenchmarkUtils.ALPHA);
+    }
+
+    @Benchmark
+    public Torus viewTransform() {
+        return torusTransformer.viewTransform(BenchmarkUtils.RHO, BenchmarkUtils.PHI, BenchmarkUtils.THETA);
+    }
+
+    @Benchmark
+    public TorusMesh rotateMesh() {
+        return meshTransformer.rotateMesh(BenchmarkUtils.ROTATION, BenchmarkUtils.ROTATION, BenchmarkUtils.ROTATION);
+    }
+
+    @Benchmark
+    public TorusMesh scaleMesh() {
+        return meshTransformer.scaleMesh(BenchmarkUtils.SCALE, BenchmarkUtils.SCALE, BenchmarkUtils.SCALE);
+    }
+
+    @Benchmark
+    public TorusMesh translateMesh() {
+        return meshTransformer.translateMesh(BenchmarkUtils.TRANSLATION, BenchmarkUtils.TRANSLATION,
+                BenchmarkUtils.TRANSLATION);
+    }
+
+    @Benchmark
+    public TorusMesh modelMesh() {
+        return meshTransformer.modelMesh();
+    }
+
+    @Benchmark
+    public TorusMesh perspectiveMesh() {
+        return meshTransformer.perspectiveMesh(BenchmarkUtils.D);
+    }
+
+    @Benchmark
+    public TorusMesh axonometricMesh() {
+        return meshTransformer.axonometricMesh(BenchmarkUtils.ROTATION, BenchmarkUtils.ROTATION, 0);
+    }
+
+    @Benchmark
+    public TorusMesh obliqueMesh() {
+        return meshTransformer.obliqueMesh(BenchmarkUtils.L, BenchmarkUtils.ALPHA);
+    }
+}
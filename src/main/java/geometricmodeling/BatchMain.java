@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2019 Nikita Sokolov. All rights reserved.
+ */
+
+package geometricmodeling;
+
+import geometricmodeling.common.Constants;
+import geometricmodeling.service.BatchRenderer;
+import geometricmodeling.util.BatchFileUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Renders the frames of a parameter file to PNG files without a display. It is a plain main class, so the
+ * JavaFX launcher does not start the toolkit before it runs:
+ * {@code java -cp <classes and dependencies> geometricmodeling.BatchMain frames.txt --output frames}.
+ * See {@link BatchFileUtils} for the parameter file format.
+ */
+public final class BatchMain {
+    private static final Logger logger = LogManager.getLogger();
+    private static final String OUTPUT_OPTION = "--output";
+    private static final String WIDTH_OPTION = "--width";
+    private static final String HEIGHT_OPTION = "--height";
+    private static final String THREADS_OPTION = "--threads";
+    private static final String DEFAULT_OUTPUT = "frames";
+    private static final String USAGE = "Usage: geometricmodeling.BatchMain <parameter file> [" + OUTPUT_OPTION
+            + " <directory>] [" + WIDTH_OPTION + " <pixels>] [" + HEIGHT_OPTION + " <pixels>] ["
+            + THREADS_OPTION + " <count>]";
+
+    private BatchMain() {
+    }
+
+    public static void main(String[] args) {
+        System.exit(run(args));
+    }
+
+    private static int run(String[] args) {
+        if (args.length < 1) {
+            logger.error(USAGE);
+            return 1;
+        }
+
+        System.setProperty("java.awt.headless", "true");
+        Path parameterFile = Paths.get(args[0]);
+        Path outputDirectory = Paths.get(DEFAULT_OUTPUT);
+        int width = Constants.CANVAS_WIDTH;
+        int height = Constants.CANVAS_HEIGHT;
+        int threadCount = Runtime.getRuntime().availableProcessors();
+
+        try {
+            for (int i = 1; i < args.length; i += 2) {
+                if (i + 1 == args.length) {
+                    throw new IllegalArgumentException("There is no value for the option: " + args[i]);
+                }
+
+                switch (args[i]) {
+                    case OUTPUT_OPTION:
+                        outputDirectory = Paths.get(args[i + 1]);
+                        break;
+                    case WIDTH_OPTION:
+                        width = Integer.parseInt(args[i + 1]);
+                        break;
+                    case HEIGHT_OPTION:
+                        height = Integer.parseInt(args[i + 1]);
+                        break;
+                    case THREADS_OPTION:
+                        threadCount = Integer.parseInt(args[i + 1]);
+                        break;
+                    default:
+                        throw new IllegalArgumentException("There is no such option: " + args[i]);
+                }
+            }
+
+            BatchRenderer batchRenderer = new BatchRenderer(width, height, threadCount);
+            batchRenderer.render(BatchFileUtils.readFrames(parameterFile), outputDirectory);
+            return 0;
+        } catch (IllegalArgumentException e) {
+            logger.error(e.getMessage());
+            logger.error(USAGE);
+        } catch (Exception e) {
+            logger.error("An exception occurred while rendering the batch: ", e);
+        }
+
+        return 1;
+    }
+}
@@ -6,6 +6,7 @@ package geometricmodeling;
 
 import geometricmodeling.common.Constants;
 import geometricmodeling.controller.Controller;
+import geometricmodeling.service.RenderMetrics;
 import javafx.application.Application;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
@@ -17,6 +18,10 @@ import javafx.stage.Stage;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+
 public class GeometricModeling extends Application {
     private static final Logger logger = LogManager.getLogger();
     private static final String GEOMETRIC_MODELING = "Geometric modeling";
@@ -38,6 +43,7 @@ public class GeometricModeling extends Application {
 
             Controller controller = loader.getController();
             controller.initializeDrawer(canvas);
+            registerMetrics(controller.getRenderMetrics());
 
             primaryStage.setTitle(GEOMETRIC_MODELING);
             primaryStage.setScene(new Scene(root));
@@ -48,6 +54,16 @@ public class GeometricModeling extends Application {
         }
     }
 
+    private void registerMetrics(RenderMetrics renderMetrics) {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(renderMetrics,
+                    new ObjectName(RenderMetrics.OBJECT_NAME));
+            logger.debug("Render metrics have been registered as " + RenderMetrics.OBJECT_NAME + ".");
+        } catch (JMException e) {
+            logger.error("Render metrics haven't been registered: ", e);
+        }
+    }
+
     public static void main(String[] args) {
         launch(args);
     }
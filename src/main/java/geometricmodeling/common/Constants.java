@@ -6,7 +6,19 @@ package geometricmodeling.common;
 
 public final class Constants {
     public static final double DEFAULT_SCALE = 1d;
-    public static final double MAX_APPROXIMATION = 5000;
+    public static final double NEAR_PLANE = 0.1;
+    public static final double CLIP_MARGIN = 2;
+    public static final int PARALLEL_THRESHOLD = 8192;
+
+    public static final int LOD_LEVEL_COUNT = 5;
+    public static final double LOD_EDGE_PIXELS = 12;
+    public static final int LOD_FACET_BUDGET = 20000;
+    public static final long MESH_CACHE_BYTES = 64L * 1024 * 1024;
+
+    public static final double AMBIENT_LIGHT = 0.2;
+    public static final double LIGHT_INTENSITY = 0.8;
+
+    public static final String TIMING_LOGGER = "timing";
 
     public static final int CANVAS_LAYOUT = 353;
     public static final int CANVAS_WIDTH = 850;
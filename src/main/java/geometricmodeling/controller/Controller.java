@@ -6,10 +6,23 @@ package geometricmodeling.controller;
 
 import geometricmodeling.common.Constants;
 import geometricmodeling.model.*;
+import geometricmodeling.service.AnimationScheduler;
 import geometricmodeling.service.Drawer;
-import geometricmodeling.service.TorusBuilder;
+import geometricmodeling.service.FrameBuffer;
+import geometricmodeling.service.FrameRenderer;
+import geometricmodeling.service.FrameSource;
+import geometricmodeling.service.FrameStatistics;
+import geometricmodeling.service.MeshCache;
+import geometricmodeling.service.RenderMetrics;
+import geometricmodeling.service.RenderService;
+import geometricmodeling.service.SceneRenderer;
+import geometricmodeling.service.StageTimer;
+import geometricmodeling.service.TorusLod;
 import geometricmodeling.service.TorusTransformer;
-import geometricmodeling.util.TorusUtils;
+import geometricmodeling.service.TransformExecutor;
+import geometricmodeling.service.ZBufferRasterizer;
+import geometricmodeling.util.SceneUtils;
+import javafx.application.Platform;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
@@ -18,13 +31,32 @@ import javafx.scene.control.*;
 import javafx.scene.paint.Color;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.message.StringMapMessage;
 
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
 
 public class Controller {
     private static final Logger logger = LogManager.getLogger();
+    private static final Logger timingLogger = LogManager.getLogger(Constants.TIMING_LOGGER);
     private static final String EMPTY = "";
+    private static final String CULLED_FACETS = "Culled facets: ";
+    private static final String FRAME_STATS = "Frame: %d, queue: %d, dropped: %d";
+    private static final String ANIMATION_STATS = "FPS: %.1f, frame p50/p95/p99: %.1f/%.1f/%.1f ms";
+    private static final String LOD_FULL = "LOD: full";
+    private static final String LOD_LEVEL = "LOD: %d/%d, %d facets";
+    private static final String SCENE_OFF = "Scene: off";
+    private static final String SCENE_STATS = "Scene: %d instances, %d meshes, %.1f MiB";
+    private static final String SCENE_CULLED = ", culled objects: %d";
+    private static final double BYTES_PER_MEBIBYTE = 1024 * 1024;
+    private static final double DEFAULT_TARGET_FPS = 60;
+    private static final int FRAME_STATISTICS_WINDOW = 120;
+    private static final double NANOS_PER_SECOND = 1e9;
+    private static final double NANOS_PER_MILLISECOND = 1e6;
 
     @FXML
     private TextField minorRadiusTextField;
@@ -42,6 +74,13 @@ public class Controller {
     @FXML
     private TextField rotationZTextField;
 
+    @FXML
+    private CheckBox animationCheckBox;
+    @FXML
+    private TextField targetFpsTextField;
+    @FXML
+    private Label animationStatsLabel;
+
     @FXML
     private TextField scalingXTextField;
     @FXML
@@ -84,6 +123,16 @@ public class Controller {
 
     @FXML
     private CheckBox viewTransformationCheckBox;
+    @FXML
+    private CheckBox zBufferCheckBox;
+    @FXML
+    private CheckBox backFaceCullingCheckBox;
+    @FXML
+    private Label culledFacetsLabel;
+    @FXML
+    private Label frameStatsLabel;
+    @FXML
+    private CheckBox timingHudCheckBox;
 
     @FXML
     private CheckBox lightCheckBox;
@@ -98,6 +147,16 @@ public class Controller {
 
     @FXML
     private ColorPicker modelColorPicker;
+    @FXML
+    private CheckBox lodCheckBox;
+    @FXML
+    private Label lodLabel;
+    @FXML
+    private CheckBox sceneCheckBox;
+    @FXML
+    private TextField sceneSizeTextField;
+    @FXML
+    private Label sceneLabel;
 
     @FXML
     private ObservableList<String> projections = FXCollections.observableArrayList(
@@ -108,12 +167,36 @@ public class Controller {
     );
 
     private Drawer drawer;
-    private Torus torus;
+    private RenderService renderService;
+    private TorusMesh mesh;
+    private TorusLod torusLod;
+    private MeshCache meshCache = new MeshCache(Constants.MESH_CACHE_BYTES);
+    private volatile String lodDescription = LOD_FULL;
     private TorusTransformer torusTransformer;
+    private SceneGraph scene;
+    private String sceneSummary;
+    private volatile String sceneDescription = SCENE_OFF;
+    private FrameRenderer frameRenderer = new FrameRenderer();
+    private SceneRenderer sceneRenderer = new SceneRenderer(
+            new TransformExecutor(Runtime.getRuntime().availableProcessors(), 1));
+    private TransformExecutor transformExecutor = new TransformExecutor(
+            Runtime.getRuntime().availableProcessors(), Constants.PARALLEL_THRESHOLD);
     private Projection projection = Projection.AXONOMETRIC;
+    private AtomicLong buildGeneration = new AtomicLong();
+    private AnimationScheduler animationScheduler;
+    private FrameStatistics frameStatistics = new FrameStatistics(FRAME_STATISTICS_WINDOW);
+    private StageTimer displayTimer = new StageTimer();
+    private RenderMetrics renderMetrics;
 
     public void initializeDrawer(Canvas canvas) {
         drawer = new Drawer(canvas);
+        renderService = new RenderService((int) canvas.getWidth(), (int) canvas.getHeight(), Platform::runLater);
+        frameRenderer.setStageTimer(renderService.getStageTimer());
+        renderMetrics = new RenderMetrics(renderService, meshCache);
+    }
+
+    public RenderMetrics getRenderMetrics() {
+        return renderMetrics;
     }
 
     @FXML
@@ -134,15 +217,75 @@ public class Controller {
             double rZ = parseDouble(rotationZTextField.getText().trim());
 
             if (rX != 0 || rY != 0 || rZ != 0) {
-                torus = torusTransformer.rotate(rX, rY, rZ);
-                logger.debug("Torus has been rotated.");
-                handleDrawButton();
+                render(() -> {
+                    if (torusTransformer == null) {
+                        logger.error("Torus hasn't been rotated.");
+                        return;
+                    }
+
+                    torusTransformer.rotateModel(rX, rY, rZ);
+                    logger.debug("Torus has been rotated.");
+                });
             }
         } catch (Exception e) {
             logger.error("Torus hasn't been rotated.");
         }
     }
 
+    @FXML
+    private void handleAnimationCheckBox() {
+        if (animationCheckBox.isSelected()) {
+            startAnimation();
+        } else {
+            stopAnimation();
+        }
+    }
+
+    /**
+     * Spins the model by the rotation fields, read as degrees per second.
+     */
+    private void startAnimation() {
+        try {
+            double rX = parseDouble(rotationXTextField.getText().trim());
+            double rY = parseDouble(rotationYTextField.getText().trim());
+            double rZ = parseDouble(rotationZTextField.getText().trim());
+            double targetFps = parseDouble(targetFpsTextField.getText().trim());
+
+            frameStatistics.reset();
+            animationScheduler = new AnimationScheduler(targetFps > 0 ? targetFps : DEFAULT_TARGET_FPS,
+                    renderService::isBusy, elapsed -> {
+                double seconds = elapsed / NANOS_PER_SECOND;
+                render(() -> {
+                    if (torusTransformer != null) {
+                        if (!torusTransformer.isReusingBuffers()) {
+                            torusTransformer.setReusingBuffers(true);
+                        }
+
+                        torusTransformer.rotateModel(rX * seconds, rY * seconds, rZ * seconds);
+                    }
+                });
+            });
+            animationScheduler.start();
+            logger.debug("Animation has been started.");
+        } catch (Exception e) {
+            animationCheckBox.setSelected(false);
+            logger.error("Animation hasn't been started.");
+        }
+    }
+
+    private void stopAnimation() {
+        if (animationScheduler != null) {
+            animationScheduler.stop();
+            animationScheduler = null;
+            render(() -> {
+                if (torusTransformer != null) {
+                    torusTransformer.setReusingBuffers(false);
+                }
+            });
+            logger.debug("Animation has been stopped.");
+        }
+    }
+
     @FXML
     private void handleScaleButton() {
         try {
@@ -151,9 +294,15 @@ public class Controller {
             double sZ = parseDouble(scalingZTextField.getText().trim());
 
             if (sX != 0 && sY != 0 && sZ != 0) {
-                torus = torusTransformer.scale(sX, sY, sZ);
-                logger.debug("Torus has been scaled.");
-                handleDrawButton();
+                render(() -> {
+                    if (torusTransformer == null) {
+                        logger.error("Torus hasn't been scaled.");
+                        return;
+                    }
+
+                    torusTransformer.scaleModel(sX, sY, sZ);
+                    logger.debug("Torus has been scaled.");
+                });
             }
         } catch (Exception e) {
             logger.error("Torus hasn't been scaled.");
@@ -168,10 +317,15 @@ public class Controller {
             double dZ = parseDouble(translationZTextField.getText().trim());
 
             if (dX != 0 || dY != 0 || dZ != 0) {
-                drawer.clear();
-                torus = torusTransformer.translate(dX, dY, dZ);
-                logger.debug("Torus has been translated.");
-                handleDrawButton();
+                render(() -> {
+                    if (torusTransformer == null) {
+                        logger.error("Torus hasn't been translated.");
+                        return;
+                    }
+
+                    torusTransformer.translateModel(dX, dY, dZ);
+                    logger.debug("Torus has been translated.");
+                });
             }
         } catch (Exception e) {
             logger.error("Torus hasn't been translated.");
@@ -180,30 +334,70 @@ public class Controller {
 
     @FXML
     private void handleBuildButton() {
-        drawer.clear();
-
         int minorRadius = parseInt(minorRadiusTextField.getText().trim());
         int minorAngle = parseInt(minorAngleTextField.getText().trim());
         int majorRadius = parseInt(majorRadiusTextField.getText().trim());
         int majorAngle = parseInt(majorAngleTextField.getText().trim());
 
         if (minorRadius != 0 && minorAngle != 0 && majorRadius != 0 && majorAngle != 0) {
-            TorusBuilder torusBuilder = new TorusBuilder(minorRadius, minorAngle, majorRadius, majorAngle);
+
+            long build = buildGeneration.incrementAndGet();
+            boolean isLodSelected = isLodSelected();
+            int sceneSize = isSceneSelected() ? parseInt(sceneSizeTextField.getText().trim()) : 0;
+            Color color = getColor();
 
             try {
-                torus = torusBuilder.build();
-                torusTransformer = new TorusTransformer(torus);
-                logger.debug("Torus model has been built.");
-                boolean isLightSelected = isLightSelected();
-                Color color = getColor();
-                Point lightPosition = getLightPosition();
-                drawer.drawView(torus.getFacets(), projection, isLightSelected, color, lightPosition);
+                render(() -> {
+                    if (build != buildGeneration.get()) {
+                        logger.debug("Torus model build has been superseded.");
+                        return;
+                    }
+
+                    StageTimer stageTimer = renderService.getStageTimer();
+                    stageTimer.begin();
+
+                    try {
+                        if (isLodSelected) {
+                            torusLod = new TorusLod(minorRadius, minorAngle, majorRadius, majorAngle,
+                                    Constants.LOD_LEVEL_COUNT, meshCache);
+                            mesh = torusLod.getLevel(0);
+                        } else {
+                            torusLod = null;
+                            mesh = meshCache.get(minorRadius, minorAngle, majorRadius, majorAngle);
+                        }
+                    } catch (Exception e) {
+                        logger.error("Torus model hasn't been built.", e);
+                        return;
+                    }
+
+                    torusTransformer = new TorusTransformer(mesh, transformExecutor);
+                    buildScene(sceneSize, color);
+                    stageTimer.end(PipelineStage.BUILD, mesh.getFacetCount());
+                    logger.debug("Torus model has been built, " + meshCache + ".");
+                });
             } catch (Exception e) {
                 logger.error("Torus model hasn't been built.");
             }
         }
     }
 
+    /**
+     * Replaces the single torus by a lattice of instances sharing its mesh, a size of 0 removes the scene.
+     */
+    private void buildScene(int sceneSize, Color color) {
+        if (sceneSize <= 0) {
+            scene = null;
+            sceneDescription = SCENE_OFF;
+            return;
+        }
+
+        scene = SceneUtils.createLattice(mesh, sceneSize, color);
+        sceneSummary = String.format(SCENE_STATS, scene.getInstanceCount(), scene.getMeshCount(),
+                scene.getEstimatedMeshBytes() / BYTES_PER_MEBIBYTE);
+        sceneDescription = sceneSummary;
+        logger.debug("Scene has been built: " + scene + ".");
+    }
+
     private Map<String, Double> getViewParameters(Projection projection, boolean isViewTransformationSelected) {
         Map<String, Double> viewParameters = new HashMap<>();
 
@@ -294,14 +488,144 @@ public class Controller {
 
     @FXML
     private void handleDrawButton() {
-        drawer.clear();
+        render(() -> { });
+    }
+
+    /**
+     * Reads the controls on the FX thread and hands the model update, the transforms and the
+     * rasterization to the render worker, which owns the mesh and the transformer.
+     */
+    private void render(Runnable modelUpdate) {
+        Projection projection = this.projection;
         boolean isViewTransformationSelected = isViewTransformationSelected();
-        Color color = getColor();
-        boolean isLightSelected = isLightSelected();
-        Point lightPosition = getLightPosition();
+        boolean isLodSelected = isLodSelected();
         Map<String, Double> viewParameters = getViewParameters(projection, isViewTransformationSelected);
-        Torus newTorus = getModelView(torus, projection, viewParameters, isViewTransformationSelected);
-        drawer.drawView(newTorus.getFacets(), projection, isLightSelected, color, lightPosition);
+        RenderRequest request = new RenderRequest.Builder()
+                .projection(projection)
+                .renderMode(isZBufferSelected() ? RenderMode.Z_BUFFER : RenderMode.PAINTER)
+                .backFaceCulling(isBackFaceCullingSelected())
+                .lightSelected(isLightSelected())
+                .color(getColor())
+                .ambientLight(Constants.AMBIENT_LIGHT)
+                .lights(getLights())
+                .build();
+
+        renderService.submit(modelUpdate, (rasterizer, frameRequest, isCancelled) -> {
+            if (mesh == null) {
+                return FrameSource.NOTHING_RENDERED;
+            }
+
+            if (scene != null) {
+                renderMetrics.setScene(scene);
+                return renderScene(rasterizer, frameRequest, viewParameters, isViewTransformationSelected,
+                        isCancelled);
+            }
+
+            TorusMesh modelView = getModelView(projection, viewParameters, isViewTransformationSelected,
+                    isLodSelected);
+            renderMetrics.setMesh(torusTransformer.getMesh());
+            return frameRenderer.render(rasterizer, modelView, frameRequest, isCancelled);
+        }, request, this::showFrame);
+    }
+
+    private int renderScene(ZBufferRasterizer rasterizer, RenderRequest request, Map<String, Double> parameters,
+                            boolean isViewTransformation, BooleanSupplier isCancelled) {
+        Projection projection = request.getProjection();
+        setViewTransformation(parameters, isViewTransformation);
+        torusTransformer.setMesh(mesh);
+        lodDescription = LOD_FULL;
+
+        Matrix4 sceneMatrix;
+        double perspectiveDistance = 0;
+
+        switch (projection) {
+            case AXONOMETRIC:
+                sceneMatrix = torusTransformer.getAxonometricMatrix(parameters.get(Constants.RX_AXONOMETRIC),
+                        parameters.get(Constants.RY_AXONOMETRIC), parameters.get(Constants.RZ_AXONOMETRIC));
+                break;
+            case ORTHOGONAL:
+                sceneMatrix = torusTransformer.getModelViewMatrix();
+                break;
+            case OBLIQUE:
+                sceneMatrix = torusTransformer.getObliqueMatrix(parameters.get(Constants.L),
+                        parameters.get(Constants.ALPHA));
+                break;
+            case PERSPECTIVE:
+                sceneMatrix = torusTransformer.getModelViewMatrix();
+                perspectiveDistance = parameters.get(Constants.D);
+                break;
+            default:
+                throw new IllegalArgumentException("There is no such projection.");
+        }
+
+        StageTimer stageTimer = renderService.getStageTimer();
+        stageTimer.begin();
+        int culledFacetCount = sceneRenderer.render(rasterizer, scene, sceneMatrix, perspectiveDistance, request,
+                isCancelled);
+        stageTimer.end(PipelineStage.RASTER, sceneRenderer.getDrawnFacetCount());
+        sceneDescription = sceneSummary + String.format(SCENE_CULLED, sceneRenderer.getCulledInstanceCount());
+        logger.debug("View-volume culling has dropped " + sceneRenderer.getCulledInstanceCount() + " objects.");
+
+        return culledFacetCount;
+    }
+
+    private void showFrame(FrameBuffer frame) {
+        displayTimer.reset();
+        displayTimer.begin();
+        drawer.drawFrame(frame);
+        displayTimer.end(PipelineStage.DISPLAY, 0);
+
+        StageTimings stageTimings = frame.getStageTimings().merge(displayTimer.getTimings());
+
+        if (isTimingHudSelected()) {
+            drawer.drawStageTimings(stageTimings);
+        }
+
+        logStageTimings(frame, stageTimings);
+        renderMetrics.recordFrame(frame.getProjection(), frame.getRenderTime());
+
+        int culledFacetCount = frame.getCulledFacetCount();
+        culledFacetsLabel.setText(CULLED_FACETS + culledFacetCount);
+        logger.debug("Back-face culling has dropped " + culledFacetCount + " facets.");
+
+        int queueDepth = renderService.getQueueDepth();
+        long droppedFrameCount = renderService.getDroppedFrameCount();
+        frameStatsLabel.setText(String.format(FRAME_STATS, frame.getFrameNumber(), queueDepth, droppedFrameCount));
+        lodLabel.setText(lodDescription);
+        sceneLabel.setText(sceneDescription);
+
+        if (animationScheduler != null) {
+            frameStatistics.record(System.nanoTime(), frame.getRenderTime());
+            animationStatsLabel.setText(String.format(ANIMATION_STATS, frameStatistics.getFramesPerSecond(),
+                    frameStatistics.getFrameTimePercentile(50) / NANOS_PER_MILLISECOND,
+                    frameStatistics.getFrameTimePercentile(95) / NANOS_PER_MILLISECOND,
+                    frameStatistics.getFrameTimePercentile(99) / NANOS_PER_MILLISECOND));
+        }
+        logger.debug("Frame " + frame.getFrameNumber() + " has been shown, queue depth: " + queueDepth
+                + ", dropped frames: " + droppedFrameCount + ".");
+    }
+
+    /**
+     * Writes one key-value record per shown frame to the timing logger, for offline analysis.
+     */
+    private void logStageTimings(FrameBuffer frame, StageTimings stageTimings) {
+        if (!timingLogger.isInfoEnabled()) {
+            return;
+        }
+
+        StringMapMessage message = new StringMapMessage()
+                .with("frame", frame.getFrameNumber())
+                .with("projection", frame.getProjection().toString())
+                .with("render_ns", frame.getRenderTime())
+                .with("total_ns", stageTimings.getTotalNanos());
+
+        for (PipelineStage stage : PipelineStage.values()) {
+            message.with(stage + "_ns", stageTimings.getNanos(stage))
+                    .with(stage + "_bytes", stageTimings.getAllocatedBytes(stage))
+                    .with(stage + "_facets", stageTimings.getFacetCount(stage));
+        }
+
+        timingLogger.info(message);
     }
 
     @FXML
@@ -335,81 +659,102 @@ public class Controller {
         }
     }
 
-    private Torus getModelView(Torus torus, Projection projection, Map<String, Double> parameters, boolean isViewTransformation) {
-        Torus newTorus = torus;
+    private TorusMesh getModelView(Projection projection, Map<String, Double> parameters,
+                                   boolean isViewTransformation, boolean isLodSelected) {
+        TorusMesh newMesh;
+
+        setViewTransformation(parameters, isViewTransformation);
+        selectLevelOfDetail(projection, parameters, isLodSelected);
+
+        StageTimer stageTimer = renderService.getStageTimer();
+        stageTimer.begin();
 
         switch (projection) {
             case AXONOMETRIC:
                 double axonometricRotationX = parameters.get(Constants.RX_AXONOMETRIC);
                 double axonometricRotationY = parameters.get(Constants.RY_AXONOMETRIC);
                 double axonometricRotationZ = parameters.get(Constants.RZ_AXONOMETRIC);
-                newTorus = torusTransformer.axonometric(axonometricRotationX, axonometricRotationY, axonometricRotationZ);
+                newMesh = torusTransformer.axonometricMesh(axonometricRotationX, axonometricRotationY, axonometricRotationZ);
                 break;
             case ORTHOGONAL:
+                newMesh = torusTransformer.modelMesh();
                 break;
             case OBLIQUE:
                 double l = parameters.get(Constants.L);
                 double alpha = parameters.get(Constants.ALPHA);
-                if (alpha % 360 >= 0 && alpha % 360 <= 90)
-                    TorusUtils.sortFacets(torus.getFacets(), SortOrder.Z_DESCENDING);
-                else if (alpha % 360 > 90 && alpha % 360 <= 180)
-                    TorusUtils.sortFacets(torus.getFacets(), SortOrder.Z_DESCENDING);
-                else if (alpha % 360 > 180 && alpha % 360 <= 270)
-                    TorusUtils.sortFacets(torus.getFacets(), SortOrder.Z_DESCENDING);
-                else if (alpha % 360 > 270 && alpha % 360 <= 360)
-                    TorusUtils.sortFacets(torus.getFacets(), SortOrder.Z_DESCENDING);
-                newTorus = torusTransformer.oblique(l, alpha);
+                newMesh = torusTransformer.obliqueMesh(l, alpha);
                 break;
             case PERSPECTIVE:
                 double d = parameters.get(Constants.D);
-                TorusUtils.sortFacets(newTorus.getFacets(), SortOrder.Z_ASCENDING);
-                newTorus = torusTransformer.perspective(d);
+                newMesh = torusTransformer.perspectiveMesh(d);
                 break;
             default:
                 throw new IllegalArgumentException("There is no such projection.");
         }
 
+        stageTimer.end(PipelineStage.TRANSFORM, newMesh.getFacetCount());
+        return newMesh;
+    }
+
+    private void setViewTransformation(Map<String, Double> parameters, boolean isViewTransformation) {
         if (isViewTransformation) {
             double rho = parameters.get(Constants.RHO);
             double phi = parameters.get(Constants.PHI);
             double theta = parameters.get(Constants.THETA);
 
-            newTorus = torusTransformer.viewTransform(rho, phi, theta);
+            torusTransformer.setViewTransformation(rho, phi, theta);
+        } else {
+            torusTransformer.resetViewTransformation();
         }
+    }
 
-        for (Plane facet : torus.getFacets()) {
-            for (Line rib : facet.getLines()) {
-                for (Point point : rib.getPoints()) {
-                    double x = (point.getX() >= Constants.MAX_APPROXIMATION)
-                            ? Constants.MAX_APPROXIMATION
-                            : (point.getX() <= -Constants.MAX_APPROXIMATION)
-                            ? Constants.MAX_APPROXIMATION
-                            : point.getX();
-                    double y = (point.getY() >= Constants.MAX_APPROXIMATION)
-                            ? Constants.MAX_APPROXIMATION
-                            : (point.getY() <= -Constants.MAX_APPROXIMATION)
-                            ? Constants.MAX_APPROXIMATION
-                            : point.getY();
-                    double z = (point.getZ() >= Constants.MAX_APPROXIMATION)
-                            ? Constants.MAX_APPROXIMATION
-                            : (point.getZ() <= -Constants.MAX_APPROXIMATION)
-                            ? Constants.MAX_APPROXIMATION
-                            : point.getZ();
-
-                    point.setX(x);
-                    point.setY(y);
-                    point.setZ(z);
-                }
-            }
+    /**
+     * Switches the transformer to the level of detail that fits the projected size of the torus,
+     * the full mesh is used when the automatic LOD is off or the torus was built without levels.
+     */
+    private void selectLevelOfDetail(Projection projection, Map<String, Double> parameters, boolean isLodSelected) {
+        if (torusLod == null || !isLodSelected) {
+            torusTransformer.setMesh(mesh);
+            lodDescription = LOD_FULL;
+            return;
         }
 
-        return newTorus;
+        double perspectiveDistance = projection == Projection.PERSPECTIVE ? parameters.get(Constants.D) : 0;
+        double viewportScale = projection == Projection.ORTHOGONAL
+                ? Constants.DEFAULT_SCALE / 2
+                : Constants.DEFAULT_SCALE;
+        double pixelsPerUnit = torusTransformer.getProjectedScale(perspectiveDistance) * viewportScale;
+
+        int level = torusLod.selectLevel(pixelsPerUnit, Constants.LOD_EDGE_PIXELS, Constants.LOD_FACET_BUDGET);
+        TorusMesh levelMesh = torusLod.getLevel(level);
+        torusTransformer.setMesh(levelMesh);
+        lodDescription = String.format(LOD_LEVEL, level, torusLod.getLevelCount() - 1, levelMesh.getFacetCount());
     }
 
     private boolean isViewTransformationSelected() {
         return viewTransformationCheckBox.isSelected();
     }
 
+    private boolean isLodSelected() {
+        return lodCheckBox.isSelected();
+    }
+
+    private boolean isSceneSelected() {
+        return sceneCheckBox.isSelected();
+    }
+
+    private boolean isZBufferSelected() {
+        return zBufferCheckBox.isSelected();
+    }
+
+    private boolean isBackFaceCullingSelected() {
+        return backFaceCullingCheckBox.isSelected();
+    }
+
+    private boolean isTimingHudSelected() {
+        return timingHudCheckBox.isSelected();
+    }
+
     private boolean isLightSelected() {
         return lightCheckBox.isSelected();
     }
@@ -418,15 +763,24 @@ public class Controller {
         String xValue = lightPositionXTextField.getText().trim();
         double x = xValue.equals(EMPTY) ? 0.0 : Double.valueOf(xValue);
 
-        String yValue = lightPositionXTextField.getText().trim();
-        double y = xValue.equals(EMPTY) ? 0.0 : Double.valueOf(yValue);
+        String yValue = lightPositionYTextField.getText().trim();
+        double y = yValue.equals(EMPTY) ? 0.0 : Double.valueOf(yValue);
 
-        String zValue = lightPositionXTextField.getText().trim();
-        double z = xValue.equals(EMPTY) ? 0.0 : Double.valueOf(zValue);
+        String zValue = lightPositionZTextField.getText().trim();
+        double z = zValue.equals(EMPTY) ? 0.0 : Double.valueOf(zValue);
 
         return new Point(x, y, z);
     }
 
+    /**
+     * The light position is read as a direction from the origin of the view space towards the light.
+     */
+    private List<Light> getLights() {
+        Point lightPosition = getLightPosition();
+        return Collections.singletonList(new Light(lightPosition.getX(), lightPosition.getY(), lightPosition.getZ(),
+                Constants.LIGHT_INTENSITY));
+    }
+
     private Color getColor() {
         return modelColorPicker.getValue();
     }
@@ -438,4 +792,4 @@ public class Controller {
     private int parseInt(String s) {
         return s.equals(EMPTY) ? 0 : Integer.parseInt(s);
     }
-}
+}
\ No newline at end of file
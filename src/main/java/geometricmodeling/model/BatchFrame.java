@@ -0,0 +1,186 @@
+/*
+ * Copyright (c) 2019 Nikita Sokolov. All rights reserved.
+ */
+
+package geometricmodeling.model;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * One frame of a batch run: the surface to build, the model rotation, the view parameters keyed like
+ * the controls and the drawing settings.
+ */
+public class BatchFrame {
+    private SurfaceType surfaceType;
+    private int minorRadius;
+    private int minorAngle;
+    private int majorRadius;
+    private int majorAngle;
+    private double rotationX;
+    private double rotationY;
+    private double rotationZ;
+    private boolean isViewTransformation;
+    private Map<String, Double> viewParameters;
+    private RenderRequest request;
+
+    private BatchFrame() {
+    }
+
+    public static class Builder {
+        private SurfaceType surfaceType = SurfaceType.TORUS;
+        private int minorRadius;
+        private int minorAngle;
+        private int majorRadius;
+        private int majorAngle;
+        private double rotationX;
+        private double rotationY;
+        private double rotationZ;
+        private boolean isViewTransformation;
+        private Map<String, Double> viewParameters = new HashMap<>();
+        private RenderRequest request = new RenderRequest.Builder().build();
+
+        public Builder() {
+        }
+
+        public Builder surface(SurfaceType surfaceType) {
+            this.surfaceType = surfaceType;
+            return this;
+        }
+
+        public Builder torus(int minorRadius, int minorAngle, int majorRadius, int majorAngle) {
+            this.minorRadius = minorRadius;
+            this.minorAngle = minorAngle;
+            this.majorRadius = majorRadius;
+            this.majorAngle = majorAngle;
+            return this;
+        }
+
+        public Builder rotation(double rotationX, double rotationY, double rotationZ) {
+            this.rotationX = rotationX;
+            this.rotationY = rotationY;
+            this.rotationZ = rotationZ;
+            return this;
+        }
+
+        public Builder viewTransformation(boolean isViewTransformation) {
+            this.isViewTransformation = isViewTransformation;
+            return this;
+        }
+
+        public Builder viewParameters(Map<String, Double> viewParameters) {
+            this.viewParameters = viewParameters;
+            return this;
+        }
+
+        public Builder request(RenderRequest request) {
+            this.request = request;
+            return this;
+        }
+
+        public BatchFrame build() {
+            return new BatchFrame(this);
+        }
+    }
+
+    private BatchFrame(Builder builder) {
+        this.surfaceType = builder.surfaceType;
+        this.minorRadius = builder.minorRadius;
+        this.minorAngle = builder.minorAngle;
+        this.majorRadius = builder.majorRadius;
+        this.majorAngle = builder.majorAngle;
+        this.rotationX = builder.rotationX;
+        this.rotationY = builder.rotationY;
+        this.rotationZ = builder.rotationZ;
+        this.isViewTransformation = builder.isViewTransformation;
+        this.viewParameters = Collections.unmodifiableMap(new HashMap<>(builder.viewParameters));
+        this.request = builder.request;
+    }
+
+    public SurfaceType getSurfaceType() {
+        return surfaceType;
+    }
+
+    public int getMinorRadius() {
+        return minorRadius;
+    }
+
+    public int getMinorAngle() {
+        return minorAngle;
+    }
+
+    public int getMajorRadius() {
+        return majorRadius;
+    }
+
+    public int getMajorAngle() {
+        return majorAngle;
+    }
+
+    public double getRotationX() {
+        return rotationX;
+    }
+
+    public double getRotationY() {
+        return rotationY;
+    }
+
+    public double getRotationZ() {
+        return rotationZ;
+    }
+
+    public boolean isViewTransformation() {
+        return isViewTransformation;
+    }
+
+    public Map<String, Double> getViewParameters() {
+        return viewParameters;
+    }
+
+    public RenderRequest getRequest() {
+        return request;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        BatchFrame that = (BatchFrame) o;
+        return this.surfaceType == that.surfaceType &&
+                this.minorRadius == that.minorRadius &&
+                this.minorAngle == that.minorAngle &&
+                this.majorRadius == that.majorRadius &&
+                this.majorAngle == that.majorAngle &&
+                Double.compare(this.rotationX, that.rotationX) == 0 &&
+                Double.compare(this.rotationY, that.rotationY) == 0 &&
+                Double.compare(this.rotationZ, that.rotationZ) == 0 &&
+                this.isViewTransformation == that.isViewTransformation &&
+                Objects.equals(this.viewParameters, that.viewParameters) &&
+                Objects.equals(this.request, that.request);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(surfaceType, minorRadius, minorAngle, majorRadius, majorAngle, rotationX, rotationY,
+                rotationZ, isViewTransformation, viewParameters, request);
+    }
+
+    @Override
+    public String toString() {
+        return "BatchFrame{" +
+                "surfaceType=" + surfaceType +
+                ", minorRadius=" + minorRadius +
+                ", minorAngle=" + minorAngle +
+                ", majorRadius=" + majorRadius +
+                ", majorAngle=" + majorAngle +
+                ", rotationX=" + rotationX +
+                ", rotationY=" + rotationY +
+                ", rotationZ=" + rotationZ +
+                ", isViewTransformation=" + isViewTransformation +
+                ", viewParameters=" + viewParameters +
+                ", request=" + request +
+                "}";
+    }
+}
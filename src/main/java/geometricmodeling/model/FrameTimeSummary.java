@@ -0,0 +1,68 @@
+/*
+ * Copyright (c) 2019 Nikita Sokolov. All rights reserved.
+ */
+
+package geometricmodeling.model;
+
+import java.beans.ConstructorProperties;
+import java.util.Objects;
+
+/**
+ * Frame times of one projection over the latest frames, in milliseconds.
+ */
+public class FrameTimeSummary {
+    private final int frameCount;
+    private final double lastMillis;
+    private final double averageMillis;
+    private final double p99Millis;
+
+    @ConstructorProperties({"frameCount", "lastMillis", "averageMillis", "p99Millis"})
+    public FrameTimeSummary(int frameCount, double lastMillis, double averageMillis, double p99Millis) {
+        this.frameCount = frameCount;
+        this.lastMillis = lastMillis;
+        this.averageMillis = averageMillis;
+        this.p99Millis = p99Millis;
+    }
+
+    public int getFrameCount() {
+        return frameCount;
+    }
+
+    public double getLastMillis() {
+        return lastMillis;
+    }
+
+    public double getAverageMillis() {
+        return averageMillis;
+    }
+
+    public double getP99Millis() {
+        return p99Millis;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        FrameTimeSummary that = (FrameTimeSummary) o;
+        return this.frameCount == that.frameCount &&
+                Double.compare(this.lastMillis, that.lastMillis) == 0 &&
+                Double.compare(this.averageMillis, that.averageMillis) == 0 &&
+                Double.compare(this.p99Millis, that.p99Millis) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(frameCount, lastMillis, averageMillis, p99Millis);
+    }
+
+    @Override
+    public String toString() {
+        return "FrameTimeSummary{" +
+                "frameCount=" + frameCount +
+                ", lastMillis=" + lastMillis +
+                ", averageMillis=" + averageMillis +
+                ", p99Millis=" + p99Millis +
+                "}";
+    }
+}
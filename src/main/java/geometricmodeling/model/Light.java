@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) 2019 Nikita Sokolov. All rights reserved.
+ */
+
+package geometricmodeling.model;
+
+import java.util.Objects;
+
+/**
+ * Directional light in view space. The direction points from the surface towards the light and is
+ * kept normalized; a zero direction lights nothing.
+ */
+public class Light {
+    private double directionX;
+    private double directionY;
+    private double directionZ;
+    private double intensity;
+
+    public Light(double directionX, double directionY, double directionZ, double intensity) {
+        double length = Math.sqrt(directionX * directionX + directionY * directionY + directionZ * directionZ);
+        double inverseLength = length == 0 ? 0 : 1 / length;
+
+        this.directionX = directionX * inverseLength;
+        this.directionY = directionY * inverseLength;
+        this.directionZ = directionZ * inverseLength;
+        this.intensity = intensity;
+    }
+
+    public double getDirectionX() {
+        return directionX;
+    }
+
+    public double getDirectionY() {
+        return directionY;
+    }
+
+    public double getDirectionZ() {
+        return directionZ;
+    }
+
+    public double getIntensity() {
+        return intensity;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        Light that = (Light) o;
+        return Double.compare(this.directionX, that.directionX) == 0 &&
+                Double.compare(this.directionY, that.directionY) == 0 &&
+                Double.compare(this.directionZ, that.directionZ) == 0 &&
+                Double.compare(this.intensity, that.intensity) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(directionX, directionY, directionZ, intensity);
+    }
+
+    @Override
+    public String toString() {
+        return "Light{" +
+                "directionX=" + directionX +
+                ", directionY=" + directionY +
+                ", directionZ=" + directionZ +
+                ", intensity=" + intensity +
+                "}";
+    }
+}
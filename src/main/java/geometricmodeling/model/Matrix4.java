@@ -0,0 +1,280 @@
+/*
+ * Copyright (c) 2019 Nikita Sokolov. All rights reserved.
+ */
+
+package geometricmodeling.model;
+
+import java.util.Arrays;
+
+/**
+ * Fixed-size 4x4 matrix for row vectors (v' = v * M, translation in the last row).
+ * All kernels are unrolled and write into caller-supplied buffers.
+ */
+public class Matrix4 {
+    private double m00, m01, m02, m03;
+    private double m10, m11, m12, m13;
+    private double m20, m21, m22, m23;
+    private double m30, m31, m32, m33;
+
+    public Matrix4() {
+        setIdentity();
+    }
+
+    public Matrix4(double m00, double m01, double m02, double m03,
+                   double m10, double m11, double m12, double m13,
+                   double m20, double m21, double m22, double m23,
+                   double m30, double m31, double m32, double m33) {
+        set(m00, m01, m02, m03, m10, m11, m12, m13, m20, m21, m22, m23, m30, m31, m32, m33);
+    }
+
+    public Matrix4 set(double m00, double m01, double m02, double m03,
+                       double m10, double m11, double m12, double m13,
+                       double m20, double m21, double m22, double m23,
+                       double m30, double m31, double m32, double m33) {
+        this.m00 = m00;
+        this.m01 = m01;
+        this.m02 = m02;
+        this.m03 = m03;
+        this.m10 = m10;
+        this.m11 = m11;
+        this.m12 = m12;
+        this.m13 = m13;
+        this.m20 = m20;
+        this.m21 = m21;
+        this.m22 = m22;
+        this.m23 = m23;
+        this.m30 = m30;
+        this.m31 = m31;
+        this.m32 = m32;
+        this.m33 = m33;
+        return this;
+    }
+
+    public Matrix4 set(Matrix4 matrix) {
+        return set(matrix.m00, matrix.m01, matrix.m02, matrix.m03,
+                matrix.m10, matrix.m11, matrix.m12, matrix.m13,
+                matrix.m20, matrix.m21, matrix.m22, matrix.m23,
+                matrix.m30, matrix.m31, matrix.m32, matrix.m33);
+    }
+
+    public Matrix4 setIdentity() {
+        return set(1.0, 0.0, 0.0, 0.0,
+                0.0, 1.0, 0.0, 0.0,
+                0.0, 0.0, 1.0, 0.0,
+                0.0, 0.0, 0.0, 1.0);
+    }
+
+    public double get(int row, int column) {
+        switch (row * 4 + column) {
+            case 0: return m00;
+            case 1: return m01;
+            case 2: return m02;
+            case 3: return m03;
+            case 4: return m10;
+            case 5: return m11;
+            case 6: return m12;
+            case 7: return m13;
+            case 8: return m20;
+            case 9: return m21;
+            case 10: return m22;
+            case 11: return m23;
+            case 12: return m30;
+            case 13: return m31;
+            case 14: return m32;
+            case 15: return m33;
+            default:
+                throw new IndexOutOfBoundsException("There is no such matrix element: " + row + ", " + column);
+        }
+    }
+
+    public Matrix4 set(int row, int column, double value) {
+        switch (row * 4 + column) {
+            case 0:
+                m00 = value;
+                break;
+            case 1:
+                m01 = value;
+                break;
+            case 2:
+                m02 = value;
+                break;
+            case 3:
+                m03 = value;
+                break;
+            case 4:
+                m10 = value;
+                break;
+            case 5:
+                m11 = value;
+                break;
+            case 6:
+                m12 = value;
+                break;
+            case 7:
+                m13 = value;
+                break;
+            case 8:
+                m20 = value;
+                break;
+            case 9:
+                m21 = value;
+                break;
+            case 10:
+                m22 = value;
+                break;
+            case 11:
+                m23 = value;
+                break;
+            case 12:
+                m30 = value;
+                break;
+            case 13:
+                m31 = value;
+                break;
+            case 14:
+                m32 = value;
+                break;
+            case 15:
+                m33 = value;
+                break;
+            default:
+                throw new IndexOutOfBoundsException("There is no such matrix element: " + row + ", " + column);
+        }
+
+        return this;
+    }
+
+    /**
+     * Replaces this matrix with {@code this * matrix}.
+     */
+    public Matrix4 multiply(Matrix4 matrix) {
+        return multiply(this, matrix, this);
+    }
+
+    /**
+     * Writes {@code a * b} into {@code destination}, which may be {@code a} or {@code b}.
+     */
+    public static Matrix4 multiply(Matrix4 a, Matrix4 b, Matrix4 destination) {
+        return destination.set(
+                a.m00 * b.m00 + a.m01 * b.m10 + a.m02 * b.m20 + a.m03 * b.m30,
+                a.m00 * b.m01 + a.m01 * b.m11 + a.m02 * b.m21 + a.m03 * b.m31,
+                a.m00 * b.m02 + a.m01 * b.m12 + a.m02 * b.m22 + a.m03 * b.m32,
+                a.m00 * b.m03 + a.m01 * b.m13 + a.m02 * b.m23 + a.m03 * b.m33,
+
+                a.m10 * b.m00 + a.m11 * b.m10 + a.m12 * b.m20 + a.m13 * b.m30,
+                a.m10 * b.m01 + a.m11 * b.m11 + a.m12 * b.m21 + a.m13 * b.m31,
+                a.m10 * b.m02 + a.m11 * b.m12 + a.m12 * b.m22 + a.m13 * b.m32,
+                a.m10 * b.m03 + a.m11 * b.m13 + a.m12 * b.m23 + a.m13 * b.m33,
+
+                a.m20 * b.m00 + a.m21 * b.m10 + a.m22 * b.m20 + a.m23 * b.m30,
+                a.m20 * b.m01 + a.m21 * b.m11 + a.m22 * b.m21 + a.m23 * b.m31,
+                a.m20 * b.m02 + a.m21 * b.m12 + a.m22 * b.m22 + a.m23 * b.m32,
+                a.m20 * b.m03 + a.m21 * b.m13 + a.m22 * b.m23 + a.m23 * b.m33,
+
+                a.m30 * b.m00 + a.m31 * b.m10 + a.m32 * b.m20 + a.m33 * b.m30,
+                a.m30 * b.m01 + a.m31 * b.m11 + a.m32 * b.m21 + a.m33 * b.m31,
+                a.m30 * b.m02 + a.m31 * b.m12 + a.m32 * b.m22 + a.m33 * b.m32,
+                a.m30 * b.m03 + a.m31 * b.m13 + a.m32 * b.m23 + a.m33 * b.m33);
+    }
+
+    public Point transform(Point point) {
+        double x = point.getX();
+        double y = point.getY();
+        double z = point.getZ();
+        double w = point.getW();
+
+        return new Point(
+                x * m00 + y * m10 + z * m20 + w * m30,
+                x * m01 + y * m11 + z * m21 + w * m31,
+                x * m02 + y * m12 + z * m22 + w * m32);
+    }
+
+    /**
+     * Transforms the points {@code [from, to)} of the affine coordinate arrays (w = 1).
+     * The destination arrays may be the source arrays.
+     */
+    public void transform(double[] x, double[] y, double[] z,
+                          double[] destinationX, double[] destinationY, double[] destinationZ, int from, int to) {
+        for (int i = from; i < to; i++) {
+            double pointX = x[i];
+            double pointY = y[i];
+            double pointZ = z[i];
+
+            destinationX[i] = pointX * m00 + pointY * m10 + pointZ * m20 + m30;
+            destinationY[i] = pointX * m01 + pointY * m11 + pointZ * m21 + m31;
+            destinationZ[i] = pointX * m02 + pointY * m12 + pointZ * m22 + m32;
+        }
+    }
+
+    /**
+     * Transforms the directions {@code [from, to)} by the upper 3x3 part only (w = 0).
+     * The destination arrays may be the source arrays.
+     */
+    public void transformDirections(double[] x, double[] y, double[] z,
+                                    double[] destinationX, double[] destinationY, double[] destinationZ,
+                                    int from, int to) {
+        for (int i = from; i < to; i++) {
+            double pointX = x[i];
+            double pointY = y[i];
+            double pointZ = z[i];
+
+            destinationX[i] = pointX * m00 + pointY * m10 + pointZ * m20;
+            destinationY[i] = pointX * m01 + pointY * m11 + pointZ * m21;
+            destinationZ[i] = pointX * m02 + pointY * m12 + pointZ * m22;
+        }
+    }
+
+    /**
+     * Writes the matrix that keeps normals perpendicular to transformed surfaces into
+     * {@code destination}: the cofactor matrix of the upper 3x3 part, which is the inverse transpose
+     * up to the determinant. It is multiplied by the sign of the determinant so that mirroring keeps
+     * normals outward; transformed normals have to be normalized.
+     */
+    public Matrix4 getNormalMatrix(Matrix4 destination) {
+        double c00 = m11 * m22 - m12 * m21;
+        double c01 = m12 * m20 - m10 * m22;
+        double c02 = m10 * m21 - m11 * m20;
+        double c10 = m02 * m21 - m01 * m22;
+        double c11 = m00 * m22 - m02 * m20;
+        double c12 = m01 * m20 - m00 * m21;
+        double c20 = m01 * m12 - m02 * m11;
+        double c21 = m02 * m10 - m00 * m12;
+        double c22 = m00 * m11 - m01 * m10;
+        double sign = m00 * c00 + m01 * c01 + m02 * c02 < 0 ? -1 : 1;
+
+        return destination.set(
+                c00 * sign, c01 * sign, c02 * sign, 0.0,
+                c10 * sign, c11 * sign, c12 * sign, 0.0,
+                c20 * sign, c21 * sign, c22 * sign, 0.0,
+                0.0, 0.0, 0.0, 1.0);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        Matrix4 that = (Matrix4) o;
+        return Arrays.equals(this.toArray(), that.toArray());
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(toArray());
+    }
+
+    private double[] toArray() {
+        return new double[]{
+                m00, m01, m02, m03,
+                m10, m11, m12, m13,
+                m20, m21, m22, m23,
+                m30, m31, m32, m33
+        };
+    }
+
+    @Override
+    public String toString() {
+        return "Matrix4{" +
+                "m=" + Arrays.toString(toArray()) +
+                "}";
+    }
+}
\ No newline at end of file
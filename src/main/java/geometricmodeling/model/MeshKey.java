@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2019 Nikita Sokolov. All rights reserved.
+ */
+
+package geometricmodeling.model;
+
+import java.util.Objects;
+
+public class MeshKey {
+    private SurfaceType surfaceType;
+    private double minorRadius;
+    private double minorAngle;
+    private double majorRadius;
+    private double majorAngle;
+
+    public MeshKey(SurfaceType surfaceType, double minorRadius, double minorAngle, double majorRadius,
+                   double majorAngle) {
+        this.surfaceType = surfaceType;
+        this.minorRadius = minorRadius;
+        this.minorAngle = minorAngle;
+        this.majorRadius = majorRadius;
+        this.majorAngle = majorAngle;
+    }
+
+    public SurfaceType getSurfaceType() {
+        return surfaceType;
+    }
+
+    public double getMinorRadius() {
+        return minorRadius;
+    }
+
+    public double getMinorAngle() {
+        return minorAngle;
+    }
+
+    public double getMajorRadius() {
+        return majorRadius;
+    }
+
+    public double getMajorAngle() {
+        return majorAngle;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        MeshKey that = (MeshKey) o;
+        return this.surfaceType == that.surfaceType &&
+                Double.compare(this.minorRadius, that.minorRadius) == 0 &&
+                Double.compare(this.minorAngle, that.minorAngle) == 0 &&
+                Double.compare(this.majorRadius, that.majorRadius) == 0 &&
+                Double.compare(this.majorAngle, that.majorAngle) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(surfaceType, minorRadius, minorAngle, majorRadius, majorAngle);
+    }
+
+    @Override
+    public String toString() {
+        return "MeshKey{" +
+                "surfaceType=" + surfaceType +
+                ", minorRadius=" + minorRadius +
+                ", minorAngle=" + minorAngle +
+                ", majorRadius=" + majorRadius +
+                ", majorAngle=" + majorAngle +
+                "}";
+    }
+}
@@ -0,0 +1,26 @@
+/*
+ * Copyright (c) 2019 Nikita Sokolov. All rights reserved.
+ */
+
+package geometricmodeling.model;
+
+public enum PipelineStage {
+    BUILD("build"),
+    TRANSFORM("transform"),
+    SHADE("shade"),
+    CULL("cull"),
+    SORT("sort"),
+    RASTER("raster"),
+    DISPLAY("display");
+
+    private String name;
+
+    PipelineStage(String name) {
+        this.name = name;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
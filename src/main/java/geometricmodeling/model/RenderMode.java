@@ -4,14 +4,13 @@
 
 package geometricmodeling.model;
 
-public enum ProjectionView {
-    FRONT("front"),
-    TOP("top"),
-    SIDE("side");
+public enum RenderMode {
+    PAINTER("painter"),
+    Z_BUFFER("z_buffer");
 
     private String name;
 
-    ProjectionView(String name) {
+    RenderMode(String name) {
         this.name = name;
     }
 
@@ -19,4 +18,4 @@ public enum ProjectionView {
     public String toString() {
         return name;
     }
-}
+}
\ No newline at end of file
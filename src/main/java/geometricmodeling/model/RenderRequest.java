@@ -0,0 +1,150 @@
+/*
+ * Copyright (c) 2019 Nikita Sokolov. All rights reserved.
+ */
+
+package geometricmodeling.model;
+
+import javafx.scene.paint.Color;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Immutable snapshot of the drawing settings read on the FX thread, so a frame can be
+ * rendered elsewhere without touching the controls.
+ */
+public class RenderRequest {
+    private Projection projection;
+    private RenderMode renderMode;
+    private boolean isBackFaceCulling;
+    private boolean isLightSelected;
+    private Color color;
+    private double ambientLight;
+    private List<Light> lights;
+
+    private RenderRequest() {
+    }
+
+    public static class Builder {
+        private Projection projection = Projection.AXONOMETRIC;
+        private RenderMode renderMode = RenderMode.PAINTER;
+        private boolean isBackFaceCulling;
+        private boolean isLightSelected;
+        private Color color = Color.BLACK;
+        private double ambientLight = 1;
+        private List<Light> lights = Collections.emptyList();
+
+        public Builder() {
+        }
+
+        public Builder projection(Projection projection) {
+            this.projection = projection;
+            return this;
+        }
+
+        public Builder renderMode(RenderMode renderMode) {
+            this.renderMode = renderMode;
+            return this;
+        }
+
+        public Builder backFaceCulling(boolean isBackFaceCulling) {
+            this.isBackFaceCulling = isBackFaceCulling;
+            return this;
+        }
+
+        public Builder lightSelected(boolean isLightSelected) {
+            this.isLightSelected = isLightSelected;
+            return this;
+        }
+
+        public Builder color(Color color) {
+            this.color = color;
+            return this;
+        }
+
+        public Builder ambientLight(double ambientLight) {
+            this.ambientLight = ambientLight;
+            return this;
+        }
+
+        public Builder lights(List<Light> lights) {
+            this.lights = lights;
+            return this;
+        }
+
+        public RenderRequest build() {
+            return new RenderRequest(this);
+        }
+    }
+
+    private RenderRequest(Builder builder) {
+        this.projection = builder.projection;
+        this.renderMode = builder.renderMode;
+        this.isBackFaceCulling = builder.isBackFaceCulling;
+        this.isLightSelected = builder.isLightSelected;
+        this.color = builder.color;
+        this.ambientLight = builder.ambientLight;
+        this.lights = Collections.unmodifiableList(builder.lights);
+    }
+
+    public Projection getProjection() {
+        return projection;
+    }
+
+    public RenderMode getRenderMode() {
+        return renderMode;
+    }
+
+    public boolean isBackFaceCulling() {
+        return isBackFaceCulling;
+    }
+
+    public boolean isLightSelected() {
+        return isLightSelected;
+    }
+
+    public Color getColor() {
+        return color;
+    }
+
+    public double getAmbientLight() {
+        return ambientLight;
+    }
+
+    public List<Light> getLights() {
+        return lights;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        RenderRequest that = (RenderRequest) o;
+        return this.isBackFaceCulling == that.isBackFaceCulling &&
+                Double.compare(this.ambientLight, that.ambientLight) == 0 &&
+                this.isLightSelected == that.isLightSelected &&
+                this.projection == that.projection &&
+                this.renderMode == that.renderMode &&
+                Objects.equals(this.color, that.color) &&
+                Objects.equals(this.lights, that.lights);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(projection, renderMode, isBackFaceCulling, isLightSelected, color, ambientLight, lights);
+    }
+
+    @Override
+    public String toString() {
+        return "RenderRequest{" +
+                "projection=" + projection +
+                ", renderMode=" + renderMode +
+                ", isBackFaceCulling=" + isBackFaceCulling +
+                ", isLightSelected=" + isLightSelected +
+                ", color=" + color +
+                ", ambientLight=" + ambientLight +
+                ", lights=" + lights +
+                "}";
+    }
+}
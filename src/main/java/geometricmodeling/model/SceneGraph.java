@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2019 Nikita Sokolov. All rights reserved.
+ */
+
+package geometricmodeling.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Flat list of instances. Instances refer to base meshes, so memory grows with the number of
+ * distinct meshes and not with the number of instances.
+ */
+public class SceneGraph {
+    private List<TorusInstance> instances = new ArrayList<>();
+
+    public void addInstance(TorusInstance instance) {
+        instances.add(instance);
+    }
+
+    public List<TorusInstance> getInstances() {
+        return Collections.unmodifiableList(instances);
+    }
+
+    public int getInstanceCount() {
+        return instances.size();
+    }
+
+    public int getMeshCount() {
+        Map<TorusMesh, Boolean> meshes = new IdentityHashMap<>();
+
+        for (TorusInstance instance : instances) {
+            meshes.put(instance.getMesh(), Boolean.TRUE);
+        }
+
+        return meshes.size();
+    }
+
+    /**
+     * Facets drawn for the whole scene, every instance counts its mesh again.
+     */
+    public long getFacetCount() {
+        long facetCount = 0;
+
+        for (TorusInstance instance : instances) {
+            facetCount += instance.getMesh().getFacetCount();
+        }
+
+        return facetCount;
+    }
+
+    public long getVertexCount() {
+        long vertexCount = 0;
+
+        for (TorusInstance instance : instances) {
+            vertexCount += instance.getMesh().getVertexCount();
+        }
+
+        return vertexCount;
+    }
+
+    public long getEstimatedMeshBytes() {
+        Map<TorusMesh, Boolean> meshes = new IdentityHashMap<>();
+        long bytes = 0;
+
+        for (TorusInstance instance : instances) {
+            if (meshes.put(instance.getMesh(), Boolean.TRUE) == null) {
+                bytes += instance.getMesh().getEstimatedBytes();
+            }
+        }
+
+        return bytes;
+    }
+
+    @Override
+    public String toString() {
+        return "SceneGraph{" +
+                "instanceCount=" + instances.size() +
+                ", meshCount=" + getMeshCount() +
+                "}";
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2019 Nikita Sokolov. All rights reserved.
+ */
+
+package geometricmodeling.model;
+
+import java.util.Arrays;
+
+/**
+ * Immutable per-stage totals of one frame: elapsed time, bytes allocated by the timed thread and
+ * facets leaving the stage. Allocated bytes are -1 when the JVM cannot measure them.
+ */
+public class StageTimings {
+    public static final StageTimings EMPTY = new StageTimings(new long[PipelineStage.values().length],
+            new long[PipelineStage.values().length], new int[PipelineStage.values().length]);
+
+    private final long[] nanos;
+    private final long[] allocatedBytes;
+    private final int[] facetCounts;
+
+    public StageTimings(long[] nanos, long[] allocatedBytes, int[] facetCounts) {
+        this.nanos = nanos.clone();
+        this.allocatedBytes = allocatedBytes.clone();
+        this.facetCounts = facetCounts.clone();
+    }
+
+    public long getNanos(PipelineStage stage) {
+        return nanos[stage.ordinal()];
+    }
+
+    public long getAllocatedBytes(PipelineStage stage) {
+        return allocatedBytes[stage.ordinal()];
+    }
+
+    public int getFacetCount(PipelineStage stage) {
+        return facetCounts[stage.ordinal()];
+    }
+
+    public long getTotalNanos() {
+        return Arrays.stream(nanos).sum();
+    }
+
+    /**
+     * Adds the stages timed on another thread, such as the display on the FX thread.
+     */
+    public StageTimings merge(StageTimings other) {
+        long[] mergedNanos = new long[nanos.length];
+        long[] mergedBytes = new long[nanos.length];
+        int[] mergedFacets = new int[nanos.length];
+
+        for (int i = 0; i < nanos.length; i++) {
+            mergedNanos[i] = nanos[i] + other.nanos[i];
+            mergedBytes[i] = allocatedBytes[i] < 0 || other.allocatedBytes[i] < 0
+                    ? -1
+                    : allocatedBytes[i] + other.allocatedBytes[i];
+            mergedFacets[i] = facetCounts[i] + other.facetCounts[i];
+        }
+
+        return new StageTimings(mergedNanos, mergedBytes, mergedFacets);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        StageTimings that = (StageTimings) o;
+        return Arrays.equals(this.nanos, that.nanos) &&
+                Arrays.equals(this.allocatedBytes, that.allocatedBytes) &&
+                Arrays.equals(this.facetCounts, that.facetCounts);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = Arrays.hashCode(nanos);
+        result = 31 * result + Arrays.hashCode(allocatedBytes);
+        result = 31 * result + Arrays.hashCode(facetCounts);
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "StageTimings{" +
+                "nanos=" + Arrays.toString(nanos) +
+                ", allocatedBytes=" + Arrays.toString(allocatedBytes) +
+                ", facetCounts=" + Arrays.toString(facetCounts) +
+                "}";
+    }
+}
@@ -0,0 +1,22 @@
+/*
+ * Copyright (c) 2019 Nikita Sokolov. All rights reserved.
+ */
+
+package geometricmodeling.model;
+
+public enum SurfaceType {
+    TORUS("torus"),
+    SPHERE("sphere"),
+    CYLINDER("cylinder");
+
+    private String name;
+
+    SurfaceType(String name) {
+        this.name = name;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
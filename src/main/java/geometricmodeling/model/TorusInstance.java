@@ -0,0 +1,60 @@
+/*
+ * Copyright (c) 2019 Nikita Sokolov. All rights reserved.
+ */
+
+package geometricmodeling.model;
+
+import javafx.scene.paint.Color;
+
+import java.util.Objects;
+
+/**
+ * One placement of a shared base mesh: only the model matrix and the color belong to the instance.
+ */
+public class TorusInstance {
+    private TorusMesh mesh;
+    private Matrix4 modelMatrix;
+    private Color color;
+
+    public TorusInstance(TorusMesh mesh, Matrix4 modelMatrix, Color color) {
+        this.mesh = mesh;
+        this.modelMatrix = modelMatrix;
+        this.color = color;
+    }
+
+    public TorusMesh getMesh() {
+        return mesh;
+    }
+
+    public Matrix4 getModelMatrix() {
+        return modelMatrix;
+    }
+
+    public Color getColor() {
+        return color;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        TorusInstance that = (TorusInstance) o;
+        return this.mesh == that.mesh &&
+                Objects.equals(this.modelMatrix, that.modelMatrix) &&
+                Objects.equals(this.color, that.color);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(System.identityHashCode(mesh), modelMatrix, color);
+    }
+
+    @Override
+    public String toString() {
+        return "TorusInstance{" +
+                "mesh=" + mesh +
+                ", modelMatrix=" + modelMatrix +
+                ", color=" + color +
+                "}";
+    }
+}
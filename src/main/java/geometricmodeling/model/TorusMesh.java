@@ -0,0 +1,276 @@
+/*
+ * Copyright (c) 2019 Nikita Sokolov. All rights reserved.
+ */
+
+package geometricmodeling.model;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Compact struct-of-arrays torus representation. Vertices are stored as flat coordinate arrays
+ * and every facet is a quad of four consecutive indices in the facet buffer. Per-vertex and per-facet
+ * normals are optional and stored the same way, facet normals in facet order.
+ */
+public class TorusMesh {
+    public static final int VERTICES_PER_FACET = 4;
+
+    private static final int OBJECT_BYTES = 64;
+    private static final int ARRAY_HEADER_BYTES = 16;
+
+    private double minorRadius;
+    private double minorAngle;
+    private double majorRadius;
+    private double majorAngle;
+    private double[] x;
+    private double[] y;
+    private double[] z;
+    private double[] normalX;
+    private double[] normalY;
+    private double[] normalZ;
+    private double[] facetNormalX;
+    private double[] facetNormalY;
+    private double[] facetNormalZ;
+    private int[] facets;
+
+    private TorusMesh() {
+    }
+
+    public static class Builder {
+        private double minorRadius;
+        private double minorAngle;
+        private double majorRadius;
+        private double majorAngle;
+        private double[] x;
+        private double[] y;
+        private double[] z;
+        private double[] normalX;
+        private double[] normalY;
+        private double[] normalZ;
+        private double[] facetNormalX;
+        private double[] facetNormalY;
+        private double[] facetNormalZ;
+        private int[] facets;
+
+        public Builder() {
+        }
+
+        public Builder minorRadius(double minorRadius) {
+            this.minorRadius = minorRadius;
+            return this;
+        }
+
+        public Builder minorAngle(double minorAngle) {
+            this.minorAngle = minorAngle;
+            return this;
+        }
+
+        public Builder majorRadius(double majorRadius) {
+            this.majorRadius = majorRadius;
+            return this;
+        }
+
+        public Builder majorAngle(double majorAngle) {
+            this.majorAngle = majorAngle;
+            return this;
+        }
+
+        public Builder vertices(double[] x, double[] y, double[] z) {
+            this.x = x;
+            this.y = y;
+            this.z = z;
+            return this;
+        }
+
+        public Builder normals(double[] normalX, double[] normalY, double[] normalZ) {
+            this.normalX = normalX;
+            this.normalY = normalY;
+            this.normalZ = normalZ;
+            return this;
+        }
+
+        public Builder facetNormals(double[] facetNormalX, double[] facetNormalY, double[] facetNormalZ) {
+            this.facetNormalX = facetNormalX;
+            this.facetNormalY = facetNormalY;
+            this.facetNormalZ = facetNormalZ;
+            return this;
+        }
+
+        public Builder facets(int[] facets) {
+            this.facets = facets;
+            return this;
+        }
+
+        public TorusMesh build() {
+            return new TorusMesh(this);
+        }
+    }
+
+    private TorusMesh(Builder builder) {
+        this.minorRadius = builder.minorRadius;
+        this.minorAngle = builder.minorAngle;
+        this.majorRadius = builder.majorRadius;
+        this.majorAngle = builder.majorAngle;
+        this.x = builder.x;
+        this.y = builder.y;
+        this.z = builder.z;
+        this.normalX = builder.normalX;
+        this.normalY = builder.normalY;
+        this.normalZ = builder.normalZ;
+        this.facetNormalX = builder.facetNormalX;
+        this.facetNormalY = builder.facetNormalY;
+        this.facetNormalZ = builder.facetNormalZ;
+        this.facets = builder.facets;
+    }
+
+    public double getMinorRadius() {
+        return minorRadius;
+    }
+
+    public double getMinorAngle() {
+        return minorAngle;
+    }
+
+    public double getMajorRadius() {
+        return majorRadius;
+    }
+
+    public double getMajorAngle() {
+        return majorAngle;
+    }
+
+    public double[] getX() {
+        return x;
+    }
+
+    public double[] getY() {
+        return y;
+    }
+
+    public double[] getZ() {
+        return z;
+    }
+
+    public boolean hasNormals() {
+        return normalX != null;
+    }
+
+    public double[] getNormalX() {
+        return normalX;
+    }
+
+    public double[] getNormalY() {
+        return normalY;
+    }
+
+    public double[] getNormalZ() {
+        return normalZ;
+    }
+
+    public boolean hasFacetNormals() {
+        return facetNormalX != null;
+    }
+
+    public double[] getFacetNormalX() {
+        return facetNormalX;
+    }
+
+    public double[] getFacetNormalY() {
+        return facetNormalY;
+    }
+
+    public double[] getFacetNormalZ() {
+        return facetNormalZ;
+    }
+
+    public int[] getFacets() {
+        return facets;
+    }
+
+    public int getVertexCount() {
+        return x.length;
+    }
+
+    public int getFacetCount() {
+        return facets.length / VERTICES_PER_FACET;
+    }
+
+    /**
+     * Approximate heap footprint of the mesh: the coordinate, normal and index arrays plus object headers.
+     */
+    public long getEstimatedBytes() {
+        int vertexArrays = hasNormals() ? 6 : 3;
+        int facetArrays = hasFacetNormals() ? 3 : 0;
+        return OBJECT_BYTES
+                + vertexArrays * (ARRAY_HEADER_BYTES + (long) getVertexCount() * Double.BYTES)
+                + facetArrays * (ARRAY_HEADER_BYTES + (long) getFacetCount() * Double.BYTES)
+                + ARRAY_HEADER_BYTES + (long) facets.length * Integer.BYTES;
+    }
+
+    public double getCenterX(int facet) {
+        return average(x, facet);
+    }
+
+    public double getCenterY(int facet) {
+        return average(y, facet);
+    }
+
+    public double getCenterZ(int facet) {
+        return average(z, facet);
+    }
+
+    private double average(double[] coordinates, int facet) {
+        int offset = facet * VERTICES_PER_FACET;
+        return (coordinates[facets[offset]] + coordinates[facets[offset + 1]]
+                + coordinates[facets[offset + 2]] + coordinates[facets[offset + 3]]) / VERTICES_PER_FACET;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        TorusMesh that = (TorusMesh) o;
+        return Double.compare(this.minorRadius, that.minorRadius) == 0 &&
+                Double.compare(this.minorAngle, that.minorAngle) == 0 &&
+                Double.compare(this.majorRadius, that.majorRadius) == 0 &&
+                Double.compare(this.majorAngle, that.majorAngle) == 0 &&
+                Arrays.equals(this.x, that.x) &&
+                Arrays.equals(this.y, that.y) &&
+                Arrays.equals(this.z, that.z) &&
+                Arrays.equals(this.normalX, that.normalX) &&
+                Arrays.equals(this.normalY, that.normalY) &&
+                Arrays.equals(this.normalZ, that.normalZ) &&
+                Arrays.equals(this.facetNormalX, that.facetNormalX) &&
+                Arrays.equals(this.facetNormalY, that.facetNormalY) &&
+                Arrays.equals(this.facetNormalZ, that.facetNormalZ) &&
+                Arrays.equals(this.facets, that.facets);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = Objects.hash(minorRadius, minorAngle, majorRadius, majorAngle);
+        result = 31 * result + Arrays.hashCode(x);
+        result = 31 * result + Arrays.hashCode(y);
+        result = 31 * result + Arrays.hashCode(z);
+        result = 31 * result + Arrays.hashCode(normalX);
+        result = 31 * result + Arrays.hashCode(normalY);
+        result = 31 * result + Arrays.hashCode(normalZ);
+        result = 31 * result + Arrays.hashCode(facetNormalX);
+        result = 31 * result + Arrays.hashCode(facetNormalY);
+        result = 31 * result + Arrays.hashCode(facetNormalZ);
+        result = 31 * result + Arrays.hashCode(facets);
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "TorusMesh{" +
+                "minorRadius=" + minorRadius +
+                ", minorAngle=" + minorAngle +
+                ", majorRadius=" + majorRadius +
+                ", majorAngle=" + majorAngle +
+                ", vertexCount=" + getVertexCount() +
+                ", facetCount=" + getFacetCount() +
+                "}";
+    }
+}
\ No newline at end of file
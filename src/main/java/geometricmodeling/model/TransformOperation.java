@@ -0,0 +1,27 @@
+/*
+ * Copyright (c) 2019 Nikita Sokolov. All rights reserved.
+ */
+
+package geometricmodeling.model;
+
+public enum TransformOperation {
+    ROTATE("rotate"),
+    SCALE("scale"),
+    TRANSLATE("translate"),
+    VIEW_TRANSFORM("view_transform"),
+    MODEL_VIEW("model_view"),
+    PERSPECTIVE("perspective"),
+    AXONOMETRIC("axonometric"),
+    OBLIQUE("oblique");
+
+    private String name;
+
+    TransformOperation(String name) {
+        this.name = name;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2019 Nikita Sokolov. All rights reserved.
+ */
+
+package geometricmodeling.model;
+
+import java.util.Objects;
+
+/**
+ * Screen placement of one projection view: where its origin lands, which plane is drawn,
+ * the painter's sort order along the view axis and the scale.
+ */
+public class Viewport {
+    private Point center;
+    private PlaneType planeType;
+    private SortOrder sortOrder;
+    private double scale;
+
+    public Viewport(Point center, PlaneType planeType, SortOrder sortOrder, double scale) {
+        this.center = center;
+        this.planeType = planeType;
+        this.sortOrder = sortOrder;
+        this.scale = scale;
+    }
+
+    public Point getCenter() {
+        return center;
+    }
+
+    public PlaneType getPlaneType() {
+        return planeType;
+    }
+
+    public SortOrder getSortOrder() {
+        return sortOrder;
+    }
+
+    public double getScale() {
+        return scale;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        Viewport that = (Viewport) o;
+        return Double.compare(this.scale, that.scale) == 0 &&
+                Objects.equals(this.center, that.center) &&
+                this.planeType == that.planeType &&
+                this.sortOrder == that.sortOrder;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(center, planeType, sortOrder, scale);
+    }
+
+    @Override
+    public String toString() {
+        return "Viewport{" +
+                "center=" + center +
+                ", planeType=" + planeType +
+                ", sortOrder=" + sortOrder +
+                ", scale=" + scale +
+                "}";
+    }
+}
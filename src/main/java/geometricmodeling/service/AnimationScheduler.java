@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) 2019 Nikita Sokolov. All rights reserved.
+ */
+
+package geometricmodeling.service;
+
+import javafx.animation.AnimationTimer;
+
+import java.util.function.BooleanSupplier;
+import java.util.function.LongConsumer;
+
+/**
+ * Pulse-driven frame scheduler. A frame is requested at most once per target frame interval and
+ * never while the previous one is still being rendered, the handler receives the nanoseconds since
+ * the last requested frame, so time-based motion keeps its speed when frames are skipped.
+ */
+public class AnimationScheduler extends AnimationTimer {
+    private static final double NANOS_PER_SECOND = 1e9;
+
+    private final long frameInterval;
+    private final BooleanSupplier isBusy;
+    private final LongConsumer frameHandler;
+    private long lastFrameTime = -1;
+
+    public AnimationScheduler(double targetFramesPerSecond, BooleanSupplier isBusy, LongConsumer frameHandler) {
+        if (targetFramesPerSecond <= 0) {
+            throw new IllegalArgumentException("Target frames per second must be positive: "
+                    + targetFramesPerSecond);
+        }
+
+        this.frameInterval = (long) (NANOS_PER_SECOND / targetFramesPerSecond);
+        this.isBusy = isBusy;
+        this.frameHandler = frameHandler;
+    }
+
+    @Override
+    public void handle(long now) {
+        if (lastFrameTime < 0) {
+            lastFrameTime = now;
+            return;
+        }
+
+        long elapsed = now - lastFrameTime;
+
+        if (elapsed < frameInterval || isBusy.getAsBoolean()) {
+            return;
+        }
+
+        lastFrameTime = now;
+        frameHandler.accept(elapsed);
+    }
+
+    @Override
+    public void stop() {
+        super.stop();
+        lastFrameTime = -1;
+    }
+}
@@ -0,0 +1,265 @@
+/*
+ * Copyright (c) 2019 Nikita Sokolov. All rights reserved.
+ */
+
+package geometricmodeling.service;
+
+import geometricmodeling.common.Constants;
+import geometricmodeling.model.BatchFrame;
+import geometricmodeling.model.Matrix4;
+import geometricmodeling.model.Projection;
+import geometricmodeling.model.RenderMode;
+import geometricmodeling.model.RenderRequest;
+import geometricmodeling.model.TorusMesh;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Renders batch frames off-screen on a fixed pool of workers and writes every frame to its own PNG file
+ * as soon as it is rasterized. Each worker thread keeps its rasterizer, frame renderer and image, meshes
+ * are shared through a {@link MeshCache}. Unlit depth-tested frames without culling need neither normals
+ * nor a facet order, they are streamed from the surface builder without building a mesh. Stage times are
+ * summed over all workers, so they add up to more than the elapsed time when the workers overlap.
+ */
+public class BatchRenderer {
+    private static final Logger logger = LogManager.getLogger();
+    private static final String FILE_NAME_FORMAT = "frame-%05d.png";
+    private static final String IMAGE_FORMAT = "png";
+    private static final double NANOS_PER_SECOND = 1e9;
+    private static final double NANOS_PER_MILLISECOND = 1e6;
+
+    private final int width;
+    private final int height;
+    private final int threadCount;
+    private final MeshCache meshCache = new MeshCache(Constants.MESH_CACHE_BYTES);
+    private final ThreadLocal<Worker> workers;
+
+    private final LongAdder frameCount = new LongAdder();
+    private final LongAdder buildNanos = new LongAdder();
+    private final LongAdder transformNanos = new LongAdder();
+    private final LongAdder rasterNanos = new LongAdder();
+    private final LongAdder encodeNanos = new LongAdder();
+    private long elapsedNanos;
+
+    public BatchRenderer(int width, int height, int threadCount) {
+        if (width < 1 || height < 1) {
+            throw new IllegalArgumentException("Image size must be positive: " + width + "x" + height);
+        }
+
+        if (threadCount < 1) {
+            throw new IllegalArgumentException("Thread count must be positive: " + threadCount);
+        }
+
+        this.width = width;
+        this.height = height;
+        this.threadCount = threadCount;
+        this.workers = ThreadLocal.withInitial(() -> new Worker(width, height));
+    }
+
+    /**
+     * Renders the frames into the output directory, which is created when missing, and waits for all
+     * of them. The first failed frame stops the run.
+     */
+    public void render(List<BatchFrame> frames, Path outputDirectory) throws IOException, InterruptedException {
+        Files.createDirectories(outputDirectory);
+        ExecutorService pool = Executors.newFixedThreadPool(threadCount);
+        long start = System.nanoTime();
+
+        try {
+            List<Future<?>> results = new ArrayList<>(frames.size());
+
+            for (int i = 0; i < frames.size(); i++) {
+                BatchFrame frame = frames.get(i);
+                Path path = outputDirectory.resolve(String.format(FILE_NAME_FORMAT, i));
+                results.add(pool.submit(() -> renderFrame(frame, path)));
+            }
+
+            for (Future<?> result : results) {
+                result.get();
+            }
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) e.getCause()).getCause();
+            }
+
+            throw new IllegalStateException("Batch frame hasn't been rendered.", e.getCause());
+        } finally {
+            pool.shutdownNow();
+            elapsedNanos += System.nanoTime() - start;
+        }
+
+        logger.info(getSummary());
+    }
+
+    private void renderFrame(BatchFrame frame, Path path) {
+        Worker worker = workers.get();
+
+        long start = System.nanoTime();
+        long built;
+        long transformed;
+
+        if (isStreamed(frame.getRequest())) {
+            RevolutionSurfaceBuilder surfaceBuilder = new RevolutionSurfaceBuilder(frame.getSurfaceType(),
+                    frame.getMinorRadius(), frame.getMinorAngle(), frame.getMajorRadius(), frame.getMajorAngle());
+            built = System.nanoTime();
+            Matrix4 transformation = getTransformation(frame);
+            transformed = System.nanoTime();
+            worker.frameRenderer.renderStream(worker.rasterizer, surfaceBuilder, transformation,
+                    getPerspectiveDistance(frame), frame.isViewTransformation(), frame.getRequest());
+        } else {
+            TorusMesh mesh = meshCache.get(frame.getSurfaceType(), frame.getMinorRadius(), frame.getMinorAngle(),
+                    frame.getMajorRadius(), frame.getMajorAngle());
+            built = System.nanoTime();
+            TorusMesh modelView = getModelView(mesh, frame);
+            transformed = System.nanoTime();
+            worker.frameRenderer.render(worker.rasterizer, modelView, frame.getRequest());
+        }
+
+        long rasterized = System.nanoTime();
+        worker.image.setRGB(0, 0, width, height, worker.rasterizer.getPixels(), 0, width);
+
+        try {
+            ImageIO.write(worker.image, IMAGE_FORMAT, path.toFile());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        long encoded = System.nanoTime();
+
+        buildNanos.add(built - start);
+        transformNanos.add(transformed - built);
+        rasterNanos.add(rasterized - transformed);
+        encodeNanos.add(encoded - rasterized);
+        frameCount.increment();
+        logger.debug("Batch frame has been written: " + path + ".");
+    }
+
+    private static boolean isStreamed(RenderRequest request) {
+        return request.getRenderMode() == RenderMode.Z_BUFFER && !request.isLightSelected()
+                && !request.isBackFaceCulling();
+    }
+
+    private static TorusTransformer createTransformer(TorusMesh mesh, BatchFrame frame) {
+        TorusTransformer transformer = new TorusTransformer(mesh);
+        Map<String, Double> parameters = frame.getViewParameters();
+
+        transformer.rotateModel(frame.getRotationX(), frame.getRotationY(), frame.getRotationZ());
+
+        if (frame.isViewTransformation()) {
+            transformer.setViewTransformation(parameters.get(Constants.RHO), parameters.get(Constants.PHI),
+                    parameters.get(Constants.THETA));
+        }
+
+        return transformer;
+    }
+
+    /**
+     * The matrix a streamed frame applies to the surface, the perspective division follows it per facet.
+     */
+    private static Matrix4 getTransformation(BatchFrame frame) {
+        TorusTransformer transformer = createTransformer(null, frame);
+        Map<String, Double> parameters = frame.getViewParameters();
+
+        switch (frame.getRequest().getProjection()) {
+            case AXONOMETRIC:
+                return transformer.getAxonometricMatrix(parameters.get(Constants.RX_AXONOMETRIC),
+                        parameters.get(Constants.RY_AXONOMETRIC), parameters.get(Constants.RZ_AXONOMETRIC));
+            case ORTHOGONAL:
+            case PERSPECTIVE:
+                return transformer.getModelViewMatrix();
+            case OBLIQUE:
+                return transformer.getObliqueMatrix(parameters.get(Constants.L), parameters.get(Constants.ALPHA));
+            default:
+                throw new IllegalArgumentException("There is no such projection.");
+        }
+    }
+
+    private static double getPerspectiveDistance(BatchFrame frame) {
+        return frame.getRequest().getProjection() == Projection.PERSPECTIVE
+                ? frame.getViewParameters().get(Constants.D) : 0;
+    }
+
+    private static TorusMesh getModelView(TorusMesh mesh, BatchFrame frame) {
+        TorusTransformer transformer = createTransformer(mesh, frame);
+        Map<String, Double> parameters = frame.getViewParameters();
+
+        switch (frame.getRequest().getProjection()) {
+            case AXONOMETRIC:
+                return transformer.axonometricMesh(parameters.get(Constants.RX_AXONOMETRIC),
+                        parameters.get(Constants.RY_AXONOMETRIC), parameters.get(Constants.RZ_AXONOMETRIC));
+            case ORTHOGONAL:
+                return transformer.modelMesh();
+            case OBLIQUE:
+                return transformer.obliqueMesh(parameters.get(Constants.L), parameters.get(Constants.ALPHA));
+            case PERSPECTIVE:
+                return transformer.perspectiveMesh(parameters.get(Constants.D));
+            default:
+                throw new IllegalArgumentException("There is no such projection.");
+        }
+    }
+
+    public long getFrameCount() {
+        return frameCount.sum();
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public double getFramesPerSecond() {
+        return elapsedNanos == 0 ? 0 : frameCount.sum() * NANOS_PER_SECOND / elapsedNanos;
+    }
+
+    public long getBuildNanos() {
+        return buildNanos.sum();
+    }
+
+    public long getTransformNanos() {
+        return transformNanos.sum();
+    }
+
+    public long getRasterNanos() {
+        return rasterNanos.sum();
+    }
+
+    public long getEncodeNanos() {
+        return encodeNanos.sum();
+    }
+
+    public String getSummary() {
+        long frames = Math.max(1, frameCount.sum());
+        return String.format("%d frames in %.2f s on %d threads, %.1f fps; per frame: build %.2f ms, "
+                        + "transform %.2f ms, raster %.2f ms, encode %.2f ms",
+                frameCount.sum(), elapsedNanos / NANOS_PER_SECOND, threadCount, getFramesPerSecond(),
+                buildNanos.sum() / NANOS_PER_MILLISECOND / frames,
+                transformNanos.sum() / NANOS_PER_MILLISECOND / frames,
+                rasterNanos.sum() / NANOS_PER_MILLISECOND / frames,
+                encodeNanos.sum() / NANOS_PER_MILLISECOND / frames);
+    }
+
+    private static class Worker {
+        private final ZBufferRasterizer rasterizer;
+        private final FrameRenderer frameRenderer = new FrameRenderer();
+        private final BufferedImage image;
+
+        private Worker(int width, int height) {
+            this.rasterizer = new ZBufferRasterizer(width, height);
+            this.image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        }
+    }
+}
@@ -4,17 +4,20 @@
 
 package geometricmodeling.service;
 
-import geometricmodeling.common.Constants;
-import geometricmodeling.model.*;
-import geometricmodeling.util.MathUtils;
-import geometricmodeling.util.TorusUtils;
+import geometricmodeling.model.PipelineStage;
+import geometricmodeling.model.Point;
+import geometricmodeling.model.Projection;
+import geometricmodeling.model.StageTimings;
 import javafx.scene.canvas.Canvas;
 import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
 import javafx.scene.paint.Color;
 
-import java.util.ArrayList;
-import java.util.List;
-
+/**
+ * Shows rendered frames on the canvas: the coordinate axes, the pixels of the frame buffer and the
+ * optional stage timing overlay. Called on the FX thread only.
+ */
 public class Drawer {
     private static final String FRONT = "Front";
     private static final String TOP = "Top";
@@ -24,55 +27,51 @@ public class Drawer {
     private static final String Y = "y";
     private static final String Z = "z";
 
+    private static final String HUD_STAGE = "%-9s %7.2f ms %9.1f KiB %7d facets";
+    private static final String HUD_STAGE_WITHOUT_BYTES = "%-9s %7.2f ms %7d facets";
+    private static final String HUD_TOTAL = "total     %7.2f ms";
+    private static final double HUD_MARGIN = 10;
+    private static final double HUD_LINE_HEIGHT = 15;
+    private static final double NANOS_PER_MILLISECOND = 1e6;
+    private static final double BYTES_PER_KIBIBYTE = 1024;
+
     private Canvas canvas;
     private GraphicsContext graphicsContext;
+    private WritableImage rasterizedImage;
 
     public Drawer(Canvas canvas) {
         this.canvas = canvas;
         graphicsContext = this.canvas.getGraphicsContext2D();
     }
 
-    public void drawView(List<Plane> facets, Projection projection, boolean isLightSelected,
-                         Color color, Point lightPosition) {
-        Point center = getCanvasCenter();
-        drawCoordinateAxes(projection);
-
-        switch (projection) {
-            case OBLIQUE:
-                drawProjection(facets, center, PlaneType.XOY, Constants.DEFAULT_SCALE, isLightSelected, color,
-                        lightPosition);
-                break;
-            case ORTHOGONAL:
-                Point canvasQuarter = getCanvasQuarter();
-
-                double centerX = center.getX();
-                double centerY = center.getY();
-                double canvasQuarterX = canvasQuarter.getX();
-                double canvasQuarterY = canvasQuarter.getY();
-
-                Point frontCenter = new Point(centerX - canvasQuarterX, centerY - canvasQuarterY, 0);
-                Point sideCenter = new Point(centerX + canvasQuarterX, centerY - canvasQuarterY, 0);
-                Point topCenter = new Point(centerX - canvasQuarterX, centerY + canvasQuarterY, 0);
-
-                double scaleCoefficient = Constants.DEFAULT_SCALE / 2;
-
-                TorusUtils.sortFacets(facets, SortOrder.Z_ASCENDING);
-                drawProjection(facets, frontCenter, PlaneType.XOY, scaleCoefficient, isLightSelected, color, lightPosition);
-
-                TorusUtils.sortFacets(facets, SortOrder.X_ASCENDING);
-                drawProjection(facets, sideCenter, PlaneType.ZOY, scaleCoefficient, isLightSelected, color, lightPosition);
+    public void drawFrame(FrameBuffer frame) {
+        clear();
+        drawCoordinateAxes(frame.getProjection());
+        drawPixels(frame.getPixels(), frame.getWidth(), frame.getHeight());
+    }
 
-                TorusUtils.sortFacets(facets, SortOrder.Y_ASCENDING);
-                drawProjection(facets, topCenter, PlaneType.XOZ, scaleCoefficient, isLightSelected, color, lightPosition);
-                break;
-            case AXONOMETRIC:
-            case PERSPECTIVE:
-                TorusUtils.sortFacets(facets, SortOrder.Z_ASCENDING);
-                drawProjection(facets, center, PlaneType.XOY, Constants.DEFAULT_SCALE, isLightSelected, color, lightPosition);
-                break;
-            default:
-                throw new IllegalArgumentException("There is no such projection.");
+    /**
+     * Overlays the per-stage times, allocations and facet counts of the frame in the bottom left corner.
+     */
+    public void drawStageTimings(StageTimings stageTimings) {
+        PipelineStage[] stages = PipelineStage.values();
+        double y = canvas.getHeight() - HUD_MARGIN - stages.length * HUD_LINE_HEIGHT;
+
+        graphicsContext.setFill(Color.BLACK);
+
+        for (PipelineStage stage : stages) {
+            double milliseconds = stageTimings.getNanos(stage) / NANOS_PER_MILLISECOND;
+            long allocatedBytes = stageTimings.getAllocatedBytes(stage);
+            String line = allocatedBytes < 0
+                    ? String.format(HUD_STAGE_WITHOUT_BYTES, stage, milliseconds, stageTimings.getFacetCount(stage))
+                    : String.format(HUD_STAGE, stage, milliseconds, allocatedBytes / BYTES_PER_KIBIBYTE,
+                    stageTimings.getFacetCount(stage));
+            graphicsContext.fillText(line, HUD_MARGIN, y);
+            y += HUD_LINE_HEIGHT;
         }
+
+        graphicsContext.fillText(String.format(HUD_TOTAL, stageTimings.getTotalNanos() / NANOS_PER_MILLISECOND),
+                HUD_MARGIN, y);
     }
 
     private void drawCoordinateAxes(Projection projection) {
@@ -127,90 +126,14 @@ public class Drawer {
         }
     }
 
-    private void drawProjection(List<Plane> facets, Point center, PlaneType planeType,
-                                double scaleCoefficient, boolean isLightSelected, Color color, Point lightPosition) {
-        for (Plane facet : facets) {
-            drawFacet(facet, center, planeType, scaleCoefficient, isLightSelected, color, lightPosition);
-        }
-    }
-
-    private void drawFacet(Plane facet, Point center, PlaneType planeType,
-                           double scale, boolean isLightSelected, Color color, Point lightPosition) {
-        List<Line> ribs = facet.getLines();
-        List<Point> facetPoints = new ArrayList<>();
-
-        for (Line rib : ribs) {
-            facetPoints.addAll(rib.getPoints());
+    private void drawPixels(int[] pixels, int width, int height) {
+        if (rasterizedImage == null || rasterizedImage.getWidth() != width || rasterizedImage.getHeight() != height) {
+            rasterizedImage = new WritableImage(width, height);
         }
 
-        int size = facetPoints.size();
-
-        double[] xPoints;
-        double[] yPoints;
-
-        switch (planeType) {
-            case XOY:
-                xPoints = MathUtils.calculateXPointsByCenterAndScale(
-                        facetPoints.toArray(new Point[size]), center, scale);
-                yPoints = MathUtils.calculateYPointsByCenterAndScale(
-                        facetPoints.toArray(new Point[size]), center, -scale);
-                break;
-            case XOZ:
-                xPoints = MathUtils.calculateXPointsByCenterAndScale(
-                        facetPoints.toArray(new Point[size]), center, scale);
-                yPoints = MathUtils.calculateZPointsByCenterAndScale(
-                        facetPoints.toArray(new Point[size]), center, -scale, ProjectionView.TOP);
-                break;
-            case ZOY:
-                xPoints = MathUtils.calculateZPointsByCenterAndScale(
-                        facetPoints.toArray(new Point[size]), center, scale, ProjectionView.SIDE);
-                yPoints = MathUtils.calculateYPointsByCenterAndScale(
-                        facetPoints.toArray(new Point[size]), center, -scale);
-                break;
-            default:
-                throw new IllegalArgumentException("There is no such plane type.");
-        }
-
-        graphicsContext.setStroke(Color.BLACK);
-        graphicsContext.strokePolygon(xPoints, yPoints, size);
-
-        if (isLightSelected) {
-            double lightPositionX = lightPosition.getX();
-            double lightPositionY = lightPosition.getY();
-            double lightPositionZ = lightPosition.getZ();
-
-            double lightLength = Math.sqrt(
-                    Math.pow((lightPositionX - center.getX()), 2)
-                            + Math.pow((lightPositionY - center.getY()), 2)
-                            + Math.pow((lightPositionZ - center.getZ()), 2));
-
-            double length = Math
-                    .sqrt(Math.pow((lightPositionX - facet.getCenter().getX()), 2)
-                            + Math.pow((lightPositionY - facet.getCenter().getY()), 2)
-                            + Math.pow((lightPositionZ - facet.getCenter().getZ()), 2));
-
-            double percent = 1 - length / (lightLength <= 0 ? 1 : lightLength);
-            percent = Math.abs(percent) > 1 ? 0.2 : Math.abs(percent) * 1.5;
-            percent = percent > 1 ? 1 : percent;
-
-            Color newColor = Color.rgb((int) (color.getRed() * 255 * percent),
-                    (int) (color.getGreen() * 255 * percent),
-                    (int) (color.getBlue() * 255 * percent));
-
-            if (lightLength < length) {
-                newColor = Color.rgb((int) (color.getRed() * 255 * 0.2),
-                        (int) (color.getGreen() * 255 * 0.2),
-                        (int) (color.getBlue() * 255 * 0.2));
-            }
-
-            graphicsContext.setFill(newColor);
-            graphicsContext.strokePolygon(xPoints, yPoints, size);
-            graphicsContext.fillPolygon(xPoints, yPoints, size);
-        } else {
-            graphicsContext.setFill(color);
-            graphicsContext.strokePolygon(xPoints, yPoints, size);
-            graphicsContext.fillPolygon(xPoints, yPoints, size);
-        }
+        rasterizedImage.getPixelWriter().setPixels(0, 0, width, height, PixelFormat.getIntArgbInstance(),
+                pixels, 0, width);
+        graphicsContext.drawImage(rasterizedImage, 0, 0);
     }
 
     public void clear() {
@@ -228,4 +151,4 @@ public class Drawer {
         double y = canvas.getHeight() / 4;
         return new Point(x, y, 0);
     }
-}
+}
\ No newline at end of file
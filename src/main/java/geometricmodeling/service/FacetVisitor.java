@@ -0,0 +1,13 @@
+/*
+ * Copyright (c) 2019 Nikita Sokolov. All rights reserved.
+ */
+
+package geometricmodeling.service;
+
+/**
+ * Receives streamed quads. The corner arrays hold the four corners (a, b, c, d) and are reused
+ * by the generator, so they are only valid during the call.
+ */
+public interface FacetVisitor {
+    void visitFacet(int facet, double[] x, double[] y, double[] z);
+}
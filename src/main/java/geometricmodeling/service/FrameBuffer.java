@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) 2019 Nikita Sokolov. All rights reserved.
+ */
+
+package geometricmodeling.service;
+
+import geometricmodeling.model.Projection;
+import geometricmodeling.model.StageTimings;
+
+public class FrameBuffer {
+    private final ZBufferRasterizer rasterizer;
+    private Projection projection;
+    private int culledFacetCount;
+    private long frameNumber;
+    private long renderTime;
+    private StageTimings stageTimings = StageTimings.EMPTY;
+
+    public FrameBuffer(int width, int height) {
+        this.rasterizer = new ZBufferRasterizer(width, height);
+    }
+
+    public ZBufferRasterizer getRasterizer() {
+        return rasterizer;
+    }
+
+    public int getWidth() {
+        return rasterizer.getWidth();
+    }
+
+    public int getHeight() {
+        return rasterizer.getHeight();
+    }
+
+    public int[] getPixels() {
+        return rasterizer.getPixels();
+    }
+
+    public Projection getProjection() {
+        return projection;
+    }
+
+    public int getCulledFacetCount() {
+        return culledFacetCount;
+    }
+
+    public long getFrameNumber() {
+        return frameNumber;
+    }
+
+    public long getRenderTime() {
+        return renderTime;
+    }
+
+    public StageTimings getStageTimings() {
+        return stageTimings;
+    }
+
+    void setFrameInfo(Projection projection, int culledFacetCount, long frameNumber, long renderTime,
+                      StageTimings stageTimings) {
+        this.projection = projection;
+        this.culledFacetCount = culledFacetCount;
+        this.frameNumber = frameNumber;
+        this.renderTime = renderTime;
+        this.stageTimings = stageTimings;
+    }
+}
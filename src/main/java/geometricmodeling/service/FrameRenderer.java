@@ -0,0 +1,238 @@
+/*
+ * Copyright (c) 2019 Nikita Sokolov. All rights reserved.
+ */
+
+package geometricmodeling.service;
+
+import geometricmodeling.common.Constants;
+import geometricmodeling.model.Matrix4;
+import geometricmodeling.model.PipelineStage;
+import geometricmodeling.model.RenderMode;
+import geometricmodeling.model.RenderRequest;
+import geometricmodeling.model.SortOrder;
+import geometricmodeling.model.TorusMesh;
+import geometricmodeling.model.Viewport;
+import geometricmodeling.util.ColorUtils;
+import geometricmodeling.util.TorusUtils;
+import geometricmodeling.util.ViewportUtils;
+import javafx.scene.paint.Color;
+
+import java.util.function.BooleanSupplier;
+
+/**
+ * Renders a projected mesh into a {@link ZBufferRasterizer} without touching the scene graph,
+ * so it may run on any thread. The painter's mode rasterizes sorted facets with the depth test off.
+ * With the light selected meshes with normals are Gouraud-shaded through a {@link ShadePalette} of the
+ * model color, vertex intensities are computed once per frame and shared by all views. Meshes with facet
+ * normals only are lit flat. Instances are not thread-safe.
+ * The shading, culling, sorting and rasterization of the mesh path are charged to the stage timer.
+ */
+public class FrameRenderer {
+    private static final int STROKE_COLOR = ColorUtils.toArgb(Color.BLACK);
+
+    private double[] vertexShade = new double[0];
+    private ShadePalette palette;
+    private StageTimer stageTimer = StageTimer.DISABLED;
+
+    /**
+     * The timer has to be confined to the thread that renders.
+     */
+    public void setStageTimer(StageTimer stageTimer) {
+        this.stageTimer = stageTimer;
+    }
+
+    public int render(ZBufferRasterizer rasterizer, TorusMesh mesh, RenderRequest request) {
+        return render(rasterizer, mesh, request, () -> false);
+    }
+
+    /**
+     * Renders the views one by one and stops early once the cancellation check returns {@code true},
+     * leaving a partial frame behind.
+     */
+    public int render(ZBufferRasterizer rasterizer, TorusMesh mesh, RenderRequest request,
+                      BooleanSupplier isCancelled) {
+        boolean isPainter = request.getRenderMode() == RenderMode.PAINTER;
+        int culledFacetCount = 0;
+        int color = ColorUtils.toArgb(request.getColor());
+        LambertShader shader = getShader(request);
+        ShadePalette palette = getPalette(request.getColor());
+        double[] shade = null;
+
+        if (shader != null && mesh.hasNormals()) {
+            stageTimer.begin();
+            shade = shadeVertices(shader, mesh);
+            stageTimer.end(PipelineStage.SHADE, mesh.getFacetCount());
+        }
+
+        rasterizer.clear();
+        rasterizer.setDepthTest(!isPainter);
+
+        for (Viewport viewport : ViewportUtils.getViewports(request.getProjection(),
+                rasterizer.getWidth(), rasterizer.getHeight())) {
+            if (isCancelled.getAsBoolean()) {
+                break;
+            }
+
+            TorusMesh visibleMesh = mesh;
+
+            if (request.isBackFaceCulling()) {
+                stageTimer.begin();
+                visibleMesh = TorusUtils.cullBackFacets(mesh, viewport.getSortOrder());
+                culledFacetCount += mesh.getFacetCount() - visibleMesh.getFacetCount();
+                stageTimer.end(PipelineStage.CULL, visibleMesh.getFacetCount());
+            }
+
+            TorusMesh facetMesh = visibleMesh;
+            int[] facetOrder = null;
+
+            if (isPainter) {
+                stageTimer.begin();
+                facetOrder = TorusUtils.sortFacetIndices(visibleMesh, viewport.getSortOrder());
+                stageTimer.end(PipelineStage.SORT, visibleMesh.getFacetCount());
+            }
+
+            stageTimer.begin();
+            rasterizer.clearDepth();
+
+            if (shade != null) {
+                rasterizer.drawMesh(visibleMesh, facetOrder, viewport, shade, palette, STROKE_COLOR);
+            } else if (shader != null) {
+                rasterizer.drawMesh(visibleMesh, facetOrder, viewport,
+                        facet -> palette.getArgb(shadeFacet(shader, facetMesh, facet)), STROKE_COLOR);
+            } else if (isPainter) {
+                rasterizer.drawMesh(visibleMesh, facetOrder, viewport, facet -> color, STROKE_COLOR);
+            } else {
+                rasterizer.drawMesh(visibleMesh, viewport, facet -> color, STROKE_COLOR);
+            }
+
+            stageTimer.end(PipelineStage.RASTER, visibleMesh.getFacetCount());
+        }
+
+        return culledFacetCount;
+    }
+
+    private double[] shadeVertices(LambertShader shader, TorusMesh mesh) {
+        if (vertexShade.length < mesh.getVertexCount()) {
+            vertexShade = new double[mesh.getVertexCount()];
+        }
+
+        shader.shadeVertices(mesh, vertexShade);
+        return vertexShade;
+    }
+
+    /**
+     * Keeps the palette of the last model color, it only changes when another color is picked.
+     */
+    private ShadePalette getPalette(Color color) {
+        if (palette == null || !palette.getColor().equals(color)) {
+            palette = new ShadePalette(color);
+        }
+
+        return palette;
+    }
+
+    static LambertShader getShader(RenderRequest request) {
+        return request.isLightSelected() ? new LambertShader(request.getAmbientLight(), request.getLights()) : null;
+    }
+
+    /**
+     * Flat intensity of a facet of a mesh without vertex normals. Facet normals are transformed with the
+     * mesh but never divided by the depth, so a perspective view is lit as in view space. A mesh without
+     * any normals falls back to the cross product of the facet diagonals.
+     */
+    static double shadeFacet(LambertShader shader, TorusMesh mesh, int facet) {
+        if (mesh.hasFacetNormals()) {
+            return shader.shade(mesh.getFacetNormalX()[facet], mesh.getFacetNormalY()[facet],
+                    mesh.getFacetNormalZ()[facet]);
+        }
+
+        int[] facets = mesh.getFacets();
+        int offset = facet * TorusMesh.VERTICES_PER_FACET;
+        double[] x = mesh.getX();
+        double[] y = mesh.getY();
+        double[] z = mesh.getZ();
+        int a = facets[offset];
+        int b = facets[offset + 1];
+        int c = facets[offset + 2];
+        int d = facets[offset + 3];
+
+        return shadeDiagonals(shader, x[c] - x[a], y[c] - y[a], z[c] - z[a], x[d] - x[b], y[d] - y[b], z[d] - z[b]);
+    }
+
+    private static double shadeDiagonals(LambertShader shader, double acX, double acY, double acZ,
+                                         double bdX, double bdY, double bdZ) {
+        return shader.shade(acY * bdZ - acZ * bdY, acZ * bdX - acX * bdZ, acX * bdY - acY * bdX);
+    }
+
+    /**
+     * Streams the surface through the transformation straight into the rasterizer with the depth test,
+     * without building a mesh. Streamed facets carry no normals and are lit flat before the division.
+     * A perspective distance above 0 divides by the view depth. Facets reaching behind the near plane
+     * are dropped there when it is clipped, otherwise the depth is clamped as by
+     * {@link TorusUtils#getUnclippedDepth(double)}.
+     */
+    public int renderStream(ZBufferRasterizer rasterizer, RevolutionSurfaceBuilder surfaceBuilder,
+                            Matrix4 transformation, double perspectiveDistance, boolean isNearPlaneClipped,
+                            RenderRequest request) {
+        int[] culledFacetCount = new int[1];
+        double[] screenX = new double[TorusMesh.VERTICES_PER_FACET];
+        double[] screenY = new double[TorusMesh.VERTICES_PER_FACET];
+        double[] screenDepth = new double[TorusMesh.VERTICES_PER_FACET];
+
+        int color = ColorUtils.toArgb(request.getColor());
+        LambertShader shader = getShader(request);
+        ShadePalette palette = getPalette(request.getColor());
+
+        rasterizer.clear();
+        rasterizer.setDepthTest(true);
+
+        for (Viewport viewport : ViewportUtils.getViewports(request.getProjection(),
+                rasterizer.getWidth(), rasterizer.getHeight())) {
+            SortOrder sortOrder = viewport.getSortOrder();
+
+            rasterizer.clearDepth();
+            surfaceBuilder.streamFacets(transformation, (facet, x, y, z) -> {
+                // lit in view space, before the perspective division distorts the facet
+                double intensity = shader == null ? 1 : shadeDiagonals(shader, x[2] - x[0], y[2] - y[0],
+                        z[2] - z[0], x[3] - x[1], y[3] - y[1], z[3] - z[1]);
+
+                if (perspectiveDistance > 0 && !divideByDepth(x, y, z, perspectiveDistance, isNearPlaneClipped)) {
+                    return;
+                }
+
+                if (request.isBackFaceCulling() && !TorusUtils.isFrontFacing(x, y, z, 0, 1, 2, 3, sortOrder)) {
+                    culledFacetCount[0]++;
+                    return;
+                }
+
+                for (int corner = 0; corner < TorusMesh.VERTICES_PER_FACET; corner++) {
+                    screenX[corner] = ViewportUtils.getScreenX(viewport, x[corner], z[corner]);
+                    screenY[corner] = ViewportUtils.getScreenY(viewport, y[corner], z[corner]);
+                    screenDepth[corner] = ViewportUtils.getDepth(sortOrder, x[corner], y[corner], z[corner]);
+                }
+
+                rasterizer.drawPolygon(screenX, screenY, screenDepth, TorusMesh.VERTICES_PER_FACET,
+                        shader == null ? color : palette.getArgb(intensity), STROKE_COLOR);
+            });
+        }
+
+        return culledFacetCount[0];
+    }
+
+    private static boolean divideByDepth(double[] x, double[] y, double[] z, double perspectiveDistance,
+                                         boolean isNearPlaneClipped) {
+        for (int corner = 0; isNearPlaneClipped && corner < TorusMesh.VERTICES_PER_FACET; corner++) {
+            if (z[corner] < Constants.NEAR_PLANE) {
+                return false;
+            }
+        }
+
+        for (int corner = 0; corner < TorusMesh.VERTICES_PER_FACET; corner++) {
+            double depth = isNearPlaneClipped ? z[corner] : TorusUtils.getUnclippedDepth(z[corner]);
+            x[corner] = x[corner] * perspectiveDistance / depth;
+            y[corner] = y[corner] * perspectiveDistance / depth;
+        }
+
+        return true;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,21 @@
+/*
+ * Copyright (c) 2019 Nikita Sokolov. All rights reserved.
+ */
+
+package geometricmodeling.service;
+
+import geometricmodeling.model.RenderRequest;
+
+import java.util.function.BooleanSupplier;
+
+/**
+ * Draws one frame into the back buffer on the render worker.
+ */
+public interface FrameSource {
+    int NOTHING_RENDERED = -1;
+
+    /**
+     * Returns the number of culled facets, or {@link #NOTHING_RENDERED} when there is nothing to show.
+     */
+    int render(ZBufferRasterizer rasterizer, RenderRequest request, BooleanSupplier isCancelled);
+}
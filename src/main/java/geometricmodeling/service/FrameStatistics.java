@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2019 Nikita Sokolov. All rights reserved.
+ */
+
+package geometricmodeling.service;
+
+import java.util.Arrays;
+
+/**
+ * Sliding window of the latest frames: presentation timestamps for the achieved frame rate and
+ * frame times for the percentiles.
+ */
+public class FrameStatistics {
+    private static final double NANOS_PER_SECOND = 1e9;
+
+    private final long[] timestamps;
+    private final long[] frameTimes;
+    private int size;
+    private int next;
+
+    public FrameStatistics(int windowSize) {
+        if (windowSize < 2) {
+            throw new IllegalArgumentException("Window size must be at least 2: " + windowSize);
+        }
+
+        this.timestamps = new long[windowSize];
+        this.frameTimes = new long[windowSize];
+    }
+
+    public synchronized void record(long timestamp, long frameTime) {
+        timestamps[next] = timestamp;
+        frameTimes[next] = frameTime;
+        next = (next + 1) % timestamps.length;
+        size = Math.min(size + 1, timestamps.length);
+    }
+
+    public synchronized void reset() {
+        size = 0;
+        next = 0;
+    }
+
+    public synchronized int getSize() {
+        return size;
+    }
+
+    public synchronized double getFramesPerSecond() {
+        if (size < 2) {
+            return 0;
+        }
+
+        int oldest = (next - size + timestamps.length) % timestamps.length;
+        int newest = (next - 1 + timestamps.length) % timestamps.length;
+        long duration = timestamps[newest] - timestamps[oldest];
+
+        return duration <= 0 ? 0 : (size - 1) * NANOS_PER_SECOND / duration;
+    }
+
+    /**
+     * Returns the latest frame time in nanoseconds, 0 when nothing is recorded.
+     */
+    public synchronized long getLastFrameTime() {
+        return size == 0 ? 0 : frameTimes[(next - 1 + frameTimes.length) % frameTimes.length];
+    }
+
+    public synchronized double getAverageFrameTime() {
+        if (size == 0) {
+            return 0;
+        }
+
+        long total = 0;
+
+        for (int i = 0; i < size; i++) {
+            total += frameTimes[(next - 1 - i + frameTimes.length) % frameTimes.length];
+        }
+
+        return (double) total / size;
+    }
+
+    /**
+     * Returns the nearest-rank percentile of the frame times in nanoseconds, 0 when nothing is recorded.
+     */
+    public synchronized long getFrameTimePercentile(double percentile) {
+        if (size == 0) {
+            return 0;
+        }
+
+        long[] sorted = Arrays.copyOf(frameTimes, size);
+        Arrays.sort(sorted);
+        int rank = (int) Math.ceil(percentile / 100 * size);
+
+        return sorted[Math.max(0, Math.min(size - 1, rank - 1))];
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2019 Nikita Sokolov. All rights reserved.
+ */
+
+package geometricmodeling.service;
+
+import geometricmodeling.model.Light;
+import geometricmodeling.model.TorusMesh;
+
+import java.util.List;
+
+/**
+ * Lambertian shading with an ambient term and any number of directional lights. Vertex intensities
+ * are computed over the normal arrays in straight loops, one pass per light, so the cost of a frame
+ * is the vertex count times the light count. The rasterizer interpolates them across facets
+ * (Gouraud shading). Instances are immutable apart from the scratch buffer and not thread-safe.
+ */
+public class LambertShader {
+    private final double ambientLight;
+    private final double[] lightX;
+    private final double[] lightY;
+    private final double[] lightZ;
+    private final double[] lightIntensity;
+
+    private double[] inverseLength = new double[0];
+
+    public LambertShader(double ambientLight, List<Light> lights) {
+        this.ambientLight = ambientLight;
+        this.lightX = new double[lights.size()];
+        this.lightY = new double[lights.size()];
+        this.lightZ = new double[lights.size()];
+        this.lightIntensity = new double[lights.size()];
+
+        for (int i = 0; i < lights.size(); i++) {
+            Light light = lights.get(i);
+            lightX[i] = light.getDirectionX();
+            lightY[i] = light.getDirectionY();
+            lightZ[i] = light.getDirectionZ();
+            lightIntensity[i] = light.getIntensity();
+        }
+    }
+
+    public int getLightCount() {
+        return lightIntensity.length;
+    }
+
+    /**
+     * Writes the intensity of every vertex, clamped to [0, 1], into {@code intensity}. The mesh must
+     * have normals; they need not be unit length.
+     */
+    public void shadeVertices(TorusMesh mesh, double[] intensity) {
+        if (!mesh.hasNormals()) {
+            throw new IllegalArgumentException("Mesh has no normals: " + mesh);
+        }
+
+        int vertexCount = mesh.getVertexCount();
+        double[] normalX = mesh.getNormalX();
+        double[] normalY = mesh.getNormalY();
+        double[] normalZ = mesh.getNormalZ();
+
+        if (inverseLength.length < vertexCount) {
+            inverseLength = new double[vertexCount];
+        }
+
+        for (int i = 0; i < vertexCount; i++) {
+            double length = Math.sqrt(normalX[i] * normalX[i] + normalY[i] * normalY[i] + normalZ[i] * normalZ[i]);
+            inverseLength[i] = length == 0 ? 0 : 1 / length;
+            intensity[i] = ambientLight;
+        }
+
+        for (int light = 0; light < lightIntensity.length; light++) {
+            double x = lightX[light];
+            double y = lightY[light];
+            double z = lightZ[light];
+            double k = lightIntensity[light];
+
+            for (int i = 0; i < vertexCount; i++) {
+                double cosine = (normalX[i] * x + normalY[i] * y + normalZ[i] * z) * inverseLength[i];
+                intensity[i] += k * Math.max(0, cosine);
+            }
+        }
+
+        for (int i = 0; i < vertexCount; i++) {
+            intensity[i] = Math.min(1, intensity[i]);
+        }
+    }
+
+    /**
+     * Returns the clamped intensity for one normal, which need not be unit length.
+     */
+    public double shade(double normalX, double normalY, double normalZ) {
+        double length = Math.sqrt(normalX * normalX + normalY * normalY + normalZ * normalZ);
+        double intensity = ambientLight;
+
+        if (length == 0) {
+            return Math.min(1, intensity);
+        }
+
+        for (int light = 0; light < lightIntensity.length; light++) {
+            double cosine = (normalX * lightX[light] + normalY * lightY[light] + normalZ * lightZ[light]) / length;
+            intensity += lightIntensity[light] * Math.max(0, cosine);
+        }
+
+        return Math.min(1, intensity);
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright (c) 2019 Nikita Sokolov. All rights reserved.
+ */
+
+package geometricmodeling.service;
+
+import geometricmodeling.model.MeshKey;
+import geometricmodeling.model.SurfaceType;
+import geometricmodeling.model.TorusMesh;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Least recently used cache of built meshes, bounded by their estimated size in bytes. Cached meshes
+ * are shared, callers must not modify their arrays. A mesh larger than the whole cache is built but
+ * not kept. Meshes are built outside the lock, so lookups and statistics never wait for a build. Threads
+ * missing the same key at once may each build it, the first mesh stored is the one returned to all.
+ */
+public class MeshCache {
+    private static final Logger logger = LogManager.getLogger();
+
+    private final long maxBytes;
+    private final Map<MeshKey, TorusMesh> meshes = new LinkedHashMap<>(16, 0.75f, true);
+    private long bytes;
+    private long hitCount;
+    private long missCount;
+    private long evictionCount;
+
+    public MeshCache(long maxBytes) {
+        if (maxBytes < 0) {
+            throw new IllegalArgumentException("Cache size must not be negative: " + maxBytes);
+        }
+
+        this.maxBytes = maxBytes;
+    }
+
+    public TorusMesh get(double minorRadius, double minorAngle, double majorRadius, double majorAngle) {
+        return get(SurfaceType.TORUS, minorRadius, minorAngle, majorRadius, majorAngle);
+    }
+
+    public TorusMesh get(SurfaceType surfaceType, double minorRadius, double minorAngle, double majorRadius,
+                         double majorAngle) {
+        MeshKey key = new MeshKey(surfaceType, minorRadius, minorAngle, majorRadius, majorAngle);
+
+        synchronized (this) {
+            TorusMesh mesh = meshes.get(key);
+
+            if (mesh != null) {
+                hitCount++;
+                return mesh;
+            }
+
+            missCount++;
+        }
+
+        return put(key, new RevolutionSurfaceBuilder(surfaceType, minorRadius, minorAngle, majorRadius, majorAngle)
+                .buildMesh());
+    }
+
+    private synchronized TorusMesh put(MeshKey key, TorusMesh mesh) {
+        TorusMesh cachedMesh = meshes.get(key);
+
+        if (cachedMesh != null) {
+            return cachedMesh;
+        }
+
+        long meshBytes = mesh.getEstimatedBytes();
+
+        if (meshBytes <= maxBytes) {
+            evict(maxBytes - meshBytes);
+            meshes.put(key, mesh);
+            bytes += meshBytes;
+        }
+
+        return mesh;
+    }
+
+    private void evict(long targetBytes) {
+        Iterator<TorusMesh> iterator = meshes.values().iterator();
+
+        while (bytes > targetBytes && iterator.hasNext()) {
+            TorusMesh eldest = iterator.next();
+            iterator.remove();
+            bytes -= eldest.getEstimatedBytes();
+            evictionCount++;
+            logger.debug("Mesh has been evicted from the cache: " + eldest);
+        }
+    }
+
+    public synchronized void clear() {
+        meshes.clear();
+        bytes = 0;
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    public synchronized int getSize() {
+        return meshes.size();
+    }
+
+    public synchronized long getBytes() {
+        return bytes;
+    }
+
+    public synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    public synchronized long getMissCount() {
+        return missCount;
+    }
+
+    public synchronized long getEvictionCount() {
+        return evictionCount;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "MeshCache{" +
+                "size=" + meshes.size() +
+                ", bytes=" + bytes +
+                ", maxBytes=" + maxBytes +
+                ", hitCount=" + hitCount +
+                ", missCount=" + missCount +
+                ", evictionCount=" + evictionCount +
+                "}";
+    }
+}
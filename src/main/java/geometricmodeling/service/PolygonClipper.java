@@ -0,0 +1,174 @@
+/*
+ * Copyright (c) 2019 Nikita Sokolov. All rights reserved.
+ */
+
+package geometricmodeling.service;
+
+/**
+ * Sutherland-Hodgman clipping of convex screen-space polygons against an axis-aligned rectangle.
+ * Clipped vertices are written into reusable buffers, optional depth and shade attributes are
+ * interpolated along. Instances are not thread-safe.
+ */
+public class PolygonClipper {
+    public static final int MAX_VERTICES = 16;
+
+    private static final int LEFT = 0;
+    private static final int RIGHT = 1;
+    private static final int TOP = 2;
+    private static final int BOTTOM = 3;
+
+    private final double minX;
+    private final double minY;
+    private final double maxX;
+    private final double maxY;
+
+    private double[] x = new double[MAX_VERTICES];
+    private double[] y = new double[MAX_VERTICES];
+    private double[] depth = new double[MAX_VERTICES];
+    private double[] shade = new double[MAX_VERTICES];
+    private double[] bufferX = new double[MAX_VERTICES];
+    private double[] bufferY = new double[MAX_VERTICES];
+    private double[] bufferDepth = new double[MAX_VERTICES];
+    private double[] bufferShade = new double[MAX_VERTICES];
+
+    public PolygonClipper(double minX, double minY, double maxX, double maxY) {
+        this.minX = minX;
+        this.minY = minY;
+        this.maxX = maxX;
+        this.maxY = maxY;
+    }
+
+    public double[] getX() {
+        return x;
+    }
+
+    public double[] getY() {
+        return y;
+    }
+
+    public double[] getDepth() {
+        return depth;
+    }
+
+    public double[] getShade() {
+        return shade;
+    }
+
+    /**
+     * Clips the polygon and returns the number of clipped vertices, 0 when nothing is visible.
+     * The depth points may be {@code null}.
+     */
+    public int clip(double[] xPoints, double[] yPoints, double[] depthPoints, int size) {
+        return clip(xPoints, yPoints, depthPoints, null, size);
+    }
+
+    /**
+     * Clips the polygon with a shade attribute as well, either attribute may be {@code null}.
+     */
+    public int clip(double[] xPoints, double[] yPoints, double[] depthPoints, double[] shadePoints, int size) {
+        int outsideLeft = 0;
+        int outsideRight = 0;
+        int outsideTop = 0;
+        int outsideBottom = 0;
+
+        for (int i = 0; i < size; i++) {
+            if (xPoints[i] < minX) outsideLeft++;
+            if (xPoints[i] > maxX) outsideRight++;
+            if (yPoints[i] < minY) outsideTop++;
+            if (yPoints[i] > maxY) outsideBottom++;
+        }
+
+        if (outsideLeft == size || outsideRight == size || outsideTop == size || outsideBottom == size) {
+            return 0;
+        }
+
+        System.arraycopy(xPoints, 0, x, 0, size);
+        System.arraycopy(yPoints, 0, y, 0, size);
+
+        if (depthPoints != null) {
+            System.arraycopy(depthPoints, 0, depth, 0, size);
+        }
+
+        if (shadePoints != null) {
+            System.arraycopy(shadePoints, 0, shade, 0, size);
+        }
+
+        if (outsideLeft + outsideRight + outsideTop + outsideBottom == 0) {
+            return size;
+        }
+
+        int clippedSize = size;
+
+        if (outsideLeft > 0) clippedSize = clipEdge(clippedSize, LEFT);
+        if (outsideRight > 0 && clippedSize > 0) clippedSize = clipEdge(clippedSize, RIGHT);
+        if (outsideTop > 0 && clippedSize > 0) clippedSize = clipEdge(clippedSize, TOP);
+        if (outsideBottom > 0 && clippedSize > 0) clippedSize = clipEdge(clippedSize, BOTTOM);
+
+        return clippedSize < 3 ? 0 : clippedSize;
+    }
+
+    private int clipEdge(int size, int edge) {
+        int clippedSize = 0;
+
+        for (int i = 0; i < size; i++) {
+            int previous = i == 0 ? size - 1 : i - 1;
+            double previousDistance = distance(previous, edge);
+            double currentDistance = distance(i, edge);
+
+            if (currentDistance >= 0) {
+                if (previousDistance < 0 && clippedSize < MAX_VERTICES) {
+                    clippedSize = addIntersection(clippedSize, previous, i, previousDistance, currentDistance);
+                }
+
+                if (clippedSize < MAX_VERTICES) {
+                    bufferX[clippedSize] = x[i];
+                    bufferY[clippedSize] = y[i];
+                    bufferDepth[clippedSize] = depth[i];
+                    bufferShade[clippedSize] = shade[i];
+                    clippedSize++;
+                }
+            } else if (previousDistance >= 0 && clippedSize < MAX_VERTICES) {
+                clippedSize = addIntersection(clippedSize, previous, i, previousDistance, currentDistance);
+            }
+        }
+
+        double[] swap = x;
+        x = bufferX;
+        bufferX = swap;
+        swap = y;
+        y = bufferY;
+        bufferY = swap;
+        swap = depth;
+        depth = bufferDepth;
+        bufferDepth = swap;
+        swap = shade;
+        shade = bufferShade;
+        bufferShade = swap;
+
+        return clippedSize;
+    }
+
+    private int addIntersection(int clippedSize, int from, int to, double fromDistance, double toDistance) {
+        double t = fromDistance / (fromDistance - toDistance);
+        bufferX[clippedSize] = x[from] + (x[to] - x[from]) * t;
+        bufferY[clippedSize] = y[from] + (y[to] - y[from]) * t;
+        bufferDepth[clippedSize] = depth[from] + (depth[to] - depth[from]) * t;
+        bufferShade[clippedSize] = shade[from] + (shade[to] - shade[from]) * t;
+        return clippedSize + 1;
+    }
+
+    private double distance(int vertex, int edge) {
+        switch (edge) {
+            case LEFT:
+                return x[vertex] - minX;
+            case RIGHT:
+                return maxX - x[vertex];
+            case TOP:
+                return y[vertex] - minY;
+            case BOTTOM:
+                return maxY - y[vertex];
+            default:
+                throw new IllegalArgumentException("There is no such clipping edge.");
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,153 @@
+/*
+ * Copyright (c) 2019 Nikita Sokolov. All rights reserved.
+ */
+
+package geometricmodeling.service;
+
+import geometricmodeling.model.FrameTimeSummary;
+import geometricmodeling.model.Projection;
+import geometricmodeling.model.SceneGraph;
+import geometricmodeling.model.TorusMesh;
+import geometricmodeling.model.TransformOperation;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Collects the metrics of the running application for {@link RenderMetricsMXBean}. The mesh or scene
+ * drawn by the last frame is published by the render worker, frame times are recorded by the FX thread
+ * and read by the JMX threads, the per-projection statistics synchronize themselves.
+ */
+public class RenderMetrics implements RenderMetricsMXBean {
+    public static final String OBJECT_NAME = "geometricmodeling:type=RenderMetrics";
+
+    private static final int FRAME_STATISTICS_WINDOW = 1000;
+    private static final double NANOS_PER_MILLISECOND = 1e6;
+    private static final double P99 = 99;
+
+    private final RenderService renderService;
+    private final MeshCache meshCache;
+    private final Map<Projection, FrameStatistics> frameStatistics = new EnumMap<>(Projection.class);
+    private volatile TorusMesh mesh;
+    private volatile SceneGraph scene;
+
+    public RenderMetrics(RenderService renderService, MeshCache meshCache) {
+        this.renderService = renderService;
+        this.meshCache = meshCache;
+
+        for (Projection projection : Projection.values()) {
+            frameStatistics.put(projection, new FrameStatistics(FRAME_STATISTICS_WINDOW));
+        }
+    }
+
+    /**
+     * Publishes the mesh a frame has drawn, the selected level of detail rather than the full mesh.
+     */
+    public void setMesh(TorusMesh mesh) {
+        this.scene = null;
+        this.mesh = mesh;
+    }
+
+    /**
+     * Publishes the scene a frame has drawn, facets and vertices are summed over its instances.
+     */
+    public void setScene(SceneGraph scene) {
+        this.mesh = null;
+        this.scene = scene;
+    }
+
+    public void recordFrame(Projection projection, long renderTime) {
+        frameStatistics.get(projection).record(System.nanoTime(), renderTime);
+    }
+
+    @Override
+    public long getFacetCount() {
+        SceneGraph scene = this.scene;
+        TorusMesh mesh = this.mesh;
+        return scene != null ? scene.getFacetCount() : mesh == null ? 0 : mesh.getFacetCount();
+    }
+
+    @Override
+    public long getVertexCount() {
+        SceneGraph scene = this.scene;
+        TorusMesh mesh = this.mesh;
+        return scene != null ? scene.getVertexCount() : mesh == null ? 0 : mesh.getVertexCount();
+    }
+
+    @Override
+    public long getEstimatedMeshBytes() {
+        SceneGraph scene = this.scene;
+        TorusMesh mesh = this.mesh;
+        return scene != null ? scene.getEstimatedMeshBytes() : mesh == null ? 0 : mesh.getEstimatedBytes();
+    }
+
+    @Override
+    public long getMeshCacheBytes() {
+        return meshCache.getBytes();
+    }
+
+    @Override
+    public double getMeshCacheHitRatio() {
+        long hitCount = meshCache.getHitCount();
+        long requestCount = hitCount + meshCache.getMissCount();
+        return requestCount == 0 ? 0 : (double) hitCount / requestCount;
+    }
+
+    @Override
+    public long getRenderedFrameCount() {
+        return renderService.getRenderedFrameCount();
+    }
+
+    @Override
+    public long getDroppedFrameCount() {
+        return renderService.getDroppedFrameCount();
+    }
+
+    @Override
+    public long getCoalescedFrameCount() {
+        return renderService.getCoalescedFrameCount();
+    }
+
+    @Override
+    public long getCancelledFrameCount() {
+        return renderService.getCancelledFrameCount();
+    }
+
+    @Override
+    public Map<String, FrameTimeSummary> getFrameTimes() {
+        Map<String, FrameTimeSummary> frameTimes = new LinkedHashMap<>();
+
+        for (Map.Entry<Projection, FrameStatistics> entry : frameStatistics.entrySet()) {
+            FrameStatistics statistics = entry.getValue();
+            frameTimes.put(entry.getKey().toString(), new FrameTimeSummary(statistics.getSize(),
+                    statistics.getLastFrameTime() / NANOS_PER_MILLISECOND,
+                    statistics.getAverageFrameTime() / NANOS_PER_MILLISECOND,
+                    statistics.getFrameTimePercentile(P99) / NANOS_PER_MILLISECOND));
+        }
+
+        return Collections.unmodifiableMap(frameTimes);
+    }
+
+    @Override
+    public Map<String, Long> getTransformCounts() {
+        Map<String, Long> transformCounts = new LinkedHashMap<>();
+
+        for (TransformOperation operation : TransformOperation.values()) {
+            transformCounts.put(operation.toString(), TorusTransformer.getOperationCount(operation));
+        }
+
+        return Collections.unmodifiableMap(transformCounts);
+    }
+
+    @Override
+    public long getGcMillis() {
+        return RenderService.getGcMillis();
+    }
+
+    @Override
+    public long getRenderGcMillis() {
+        return renderService.getRenderGcMillis();
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) 2019 Nikita Sokolov. All rights reserved.
+ */
+
+package geometricmodeling.service;
+
+import geometricmodeling.model.FrameTimeSummary;
+
+import java.util.Map;
+
+/**
+ * Live render, cache and memory metrics published over JMX.
+ */
+public interface RenderMetricsMXBean {
+    /**
+     * Facets of the mesh drawn by the last frame, summed over all instances in scene mode.
+     */
+    long getFacetCount();
+
+    long getVertexCount();
+
+    /**
+     * Estimated size of the drawn mesh, of the distinct meshes in scene mode.
+     */
+    long getEstimatedMeshBytes();
+
+    long getMeshCacheBytes();
+
+    double getMeshCacheHitRatio();
+
+    long getRenderedFrameCount();
+
+    long getDroppedFrameCount();
+
+    /**
+     * Dropped frames that were replaced by a newer one before the worker took them.
+     */
+    long getCoalescedFrameCount();
+
+    /**
+     * Dropped frames that were superseded while the worker was drawing them.
+     */
+    long getCancelledFrameCount();
+
+    /**
+     * Last, average and 99th percentile frame times keyed by projection.
+     */
+    Map<String, FrameTimeSummary> getFrameTimes();
+
+    /**
+     * Transformer operations performed since start, keyed by operation.
+     */
+    Map<String, Long> getTransformCounts();
+
+    long getGcMillis();
+
+    long getRenderGcMillis();
+}
@@ -0,0 +1,228 @@
+/*
+ * Copyright (c) 2019 Nikita Sokolov. All rights reserved.
+ */
+
+package geometricmodeling.service;
+
+import geometricmodeling.model.RenderRequest;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Builds, transforms and rasterizes frames on a single worker thread. Frames are rendered into the
+ * back buffer and swapped with the front one when finished, the listener is then called through the
+ * publisher (the FX thread) while holding the front buffer, so it only has to copy the pixels.
+ * <p>
+ * Model updates are cumulative and always applied in submission order, frames are not: only the
+ * newest pending frame is kept, and a frame that is superseded while rendering is abandoned at the
+ * next stage boundary. The mesh and the transformer stay confined to the worker. Every frame carries
+ * the stage timings collected on the worker, model updates included.
+ */
+public class RenderService {
+    private static final Logger logger = LogManager.getLogger();
+    private static final String WORKER_NAME = "render-worker";
+
+    private final ExecutorService worker;
+    private final Executor publisher;
+    private final StageTimer stageTimer = new StageTimer();
+    private final Object frameLock = new Object();
+
+    private final Queue<Runnable> modelUpdates = new ConcurrentLinkedQueue<>();
+    private final AtomicReference<FrameTask> pendingFrame = new AtomicReference<>();
+    private final AtomicBoolean rendering = new AtomicBoolean();
+    private final AtomicLong generation = new AtomicLong();
+    private final AtomicLong renderedFrameCount = new AtomicLong();
+    private final AtomicLong coalescedFrameCount = new AtomicLong();
+    private final AtomicLong cancelledFrameCount = new AtomicLong();
+    private final AtomicLong renderGcMillis = new AtomicLong();
+
+    private FrameBuffer frontBuffer;
+    private FrameBuffer backBuffer;
+
+    public RenderService(int width, int height, Executor publisher) {
+        this.publisher = publisher;
+        this.frontBuffer = new FrameBuffer(width, height);
+        this.backBuffer = new FrameBuffer(width, height);
+        this.worker = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, WORKER_NAME);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * The timer of the worker thread, frame sources and model updates may charge their stages to it.
+     */
+    public StageTimer getStageTimer() {
+        return stageTimer;
+    }
+
+    /**
+     * Queues the model update and replaces any pending frame with one drawn by the frame source.
+     */
+    public void submit(Runnable modelUpdate, FrameSource frameSource, RenderRequest request,
+                       Consumer<FrameBuffer> frameListener) {
+        modelUpdates.add(modelUpdate);
+        FrameTask frameTask = new FrameTask(generation.incrementAndGet(), frameSource, request, frameListener);
+
+        if (pendingFrame.getAndSet(frameTask) == null) {
+            worker.execute(this::renderPendingFrame);
+        } else {
+            coalescedFrameCount.incrementAndGet();
+        }
+    }
+
+    private void renderPendingFrame() {
+        rendering.set(true);
+        FrameTask frameTask = pendingFrame.getAndSet(null);
+
+        if (frameTask == null) {
+            rendering.set(false);
+            return;
+        }
+
+        long startTime = System.nanoTime();
+        long gcStart = getGcMillis();
+        stageTimer.reset();
+
+        try {
+            applyModelUpdates();
+
+            if (isCancelled(frameTask)) {
+                return;
+            }
+
+            int culledFacetCount = frameTask.frameSource.render(backBuffer.getRasterizer(), frameTask.request,
+                    () -> isCancelled(frameTask));
+
+            if (culledFacetCount == FrameSource.NOTHING_RENDERED || isCancelled(frameTask)) {
+                return;
+            }
+
+            backBuffer.setFrameInfo(frameTask.request.getProjection(), culledFacetCount,
+                    renderedFrameCount.incrementAndGet(), System.nanoTime() - startTime, stageTimer.getTimings());
+            swapBuffers();
+
+            publisher.execute(() -> {
+                synchronized (frameLock) {
+                    frameTask.frameListener.accept(frontBuffer);
+                }
+            });
+        } catch (RuntimeException e) {
+            logger.error("Frame hasn't been rendered: ", e);
+        } finally {
+            renderGcMillis.addAndGet(getGcMillis() - gcStart);
+            rendering.set(false);
+        }
+    }
+
+    /**
+     * Accumulated collection time of all garbage collectors of the JVM, in milliseconds.
+     */
+    static long getGcMillis() {
+        long gcMillis = 0;
+
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            gcMillis += Math.max(0, collector.getCollectionTime());
+        }
+
+        return gcMillis;
+    }
+
+    private void applyModelUpdates() {
+        Runnable modelUpdate;
+
+        while ((modelUpdate = modelUpdates.poll()) != null) {
+            modelUpdate.run();
+        }
+    }
+
+    private boolean isCancelled(FrameTask frameTask) {
+        if (frameTask.generation == generation.get()) {
+            return false;
+        }
+
+        if (!frameTask.isCancelled) {
+            frameTask.isCancelled = true;
+            cancelledFrameCount.incrementAndGet();
+            logger.debug("Frame " + frameTask.generation + " has been superseded.");
+        }
+
+        return true;
+    }
+
+    private void swapBuffers() {
+        synchronized (frameLock) {
+            FrameBuffer buffer = frontBuffer;
+            frontBuffer = backBuffer;
+            backBuffer = buffer;
+        }
+    }
+
+    /**
+     * A frame is waiting or still being drawn, the pending slot alone is empty while the worker draws.
+     */
+    public boolean isBusy() {
+        return pendingFrame.get() != null || rendering.get();
+    }
+
+    public int getQueueDepth() {
+        return modelUpdates.size() + (pendingFrame.get() == null ? 0 : 1);
+    }
+
+    public long getRenderedFrameCount() {
+        return renderedFrameCount.get();
+    }
+
+    public long getDroppedFrameCount() {
+        return coalescedFrameCount.get() + cancelledFrameCount.get();
+    }
+
+    public long getCoalescedFrameCount() {
+        return coalescedFrameCount.get();
+    }
+
+    /**
+     * Garbage collection time that elapsed while frames were rendered, in milliseconds. Collections
+     * are not tied to a thread, so this is the collection time that overlapped rendering.
+     */
+    public long getRenderGcMillis() {
+        return renderGcMillis.get();
+    }
+
+    public long getCancelledFrameCount() {
+        return cancelledFrameCount.get();
+    }
+
+    public void shutdown() {
+        worker.shutdownNow();
+    }
+
+    private static class FrameTask {
+        private final long generation;
+        private final FrameSource frameSource;
+        private final RenderRequest request;
+        private final Consumer<FrameBuffer> frameListener;
+        private boolean isCancelled;
+
+        private FrameTask(long generation, FrameSource frameSource, RenderRequest request,
+                          Consumer<FrameBuffer> frameListener) {
+            this.generation = generation;
+            this.frameSource = frameSource;
+            this.request = request;
+            this.frameListener = frameListener;
+        }
+    }
+}
\ No newline at end of file
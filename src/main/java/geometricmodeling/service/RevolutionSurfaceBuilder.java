@@ -0,0 +1,346 @@
+/*
+ * Copyright (c) 2019 Nikita Sokolov. All rights reserved.
+ */
+
+package geometricmodeling.service;
+
+import geometricmodeling.model.Matrix4;
+import geometricmodeling.model.SurfaceType;
+import geometricmodeling.model.TorusMesh;
+
+/**
+ * Builds surfaces of revolution around the y axis. A profile curve in the xy half-plane is sampled
+ * once into radius and height tables and the revolution angle into a sine/cosine table, every vertex
+ * is then a product of two table entries, so only m + n trig values are computed for m * n vertices.
+ * All tables, including the profile normals, are filled once by the constructor and shared by the
+ * vertices, the normals and streaming.
+ * <p>
+ * The torus profile is the minor circle around the major radius, the sphere profile a half circle
+ * from pole to pole and the cylinder profile a vertical segment of the given height, without caps.
+ * Facets are quads (a, b, c, d) facing outwards. They can be built into a {@link TorusMesh} or
+ * streamed ring by ring without materializing the mesh. Built meshes carry analytic unit normals per
+ * vertex and per facet, the profile normal is revolved the same separable way as the profile point.
+ */
+public class RevolutionSurfaceBuilder {
+    private SurfaceType surfaceType;
+    private double minorRadius;
+    private double minorAngle;
+    private double majorRadius;
+    private double majorAngle;
+
+    private int profileSegments;
+    private int profileSamples;
+    private int revolutionSteps;
+
+    private double[] profileRadius;
+    private double[] profileHeight;
+    private double[] profileNormalRadius;
+    private double[] profileNormalHeight;
+    private double[] middleProfileNormalRadius;
+    private double[] middleProfileNormalHeight;
+    private double[] revolutionCos;
+    private double[] revolutionSin;
+    private double[] middleRevolutionCos;
+    private double[] middleRevolutionSin;
+
+    /**
+     * @param minorRadius the profile radius: the tube radius of a torus, the radius of a sphere or a cylinder
+     * @param minorAngle  the profile step in degrees, a cylinder uses it as for a half circle
+     * @param majorRadius the major radius of a torus or the height of a cylinder, unused by a sphere
+     * @param majorAngle  the revolution step in degrees
+     */
+    public RevolutionSurfaceBuilder(SurfaceType surfaceType, double minorRadius, double minorAngle,
+                                    double majorRadius, double majorAngle) {
+        this.surfaceType = surfaceType;
+        this.minorRadius = minorRadius;
+        this.minorAngle = minorAngle;
+        this.majorRadius = majorRadius;
+        this.majorAngle = majorAngle;
+        this.revolutionSteps = 360 / (int) majorAngle;
+
+        switch (surfaceType) {
+            case TORUS:
+                this.profileSegments = 360 / (int) minorAngle;
+                this.profileSamples = profileSegments;
+                break;
+            case SPHERE:
+            case CYLINDER:
+                this.profileSegments = 180 / (int) minorAngle;
+                this.profileSamples = profileSegments + 1;
+                break;
+            default:
+                throw new IllegalArgumentException("There is no such surface type.");
+        }
+
+        this.revolutionCos = new double[revolutionSteps];
+        this.revolutionSin = new double[revolutionSteps];
+        this.middleRevolutionCos = new double[revolutionSteps];
+        this.middleRevolutionSin = new double[revolutionSteps];
+        fillTrigTable(majorAngle, revolutionCos, revolutionSin);
+        fillMiddleTrigTable(majorAngle, middleRevolutionCos, middleRevolutionSin);
+        buildProfile();
+    }
+
+    private void buildProfile() {
+        profileRadius = new double[profileSamples];
+        profileHeight = new double[profileSamples];
+        profileNormalRadius = new double[profileSamples];
+        profileNormalHeight = new double[profileSamples];
+        middleProfileNormalRadius = new double[profileSegments];
+        middleProfileNormalHeight = new double[profileSegments];
+
+        for (int minor = 0; minor < profileSamples; minor++) {
+            setProfileNormal(profileNormalRadius, profileNormalHeight, minor, getProfileAngle(minor));
+
+            switch (surfaceType) {
+                case TORUS:
+                    profileRadius[minor] = majorRadius + minorRadius * profileNormalRadius[minor];
+                    profileHeight[minor] = minorRadius * profileNormalHeight[minor];
+                    break;
+                case SPHERE:
+                    profileRadius[minor] = minorRadius * profileNormalRadius[minor];
+                    profileHeight[minor] = minorRadius * profileNormalHeight[minor];
+                    break;
+                case CYLINDER:
+                    profileRadius[minor] = minorRadius;
+                    profileHeight[minor] = majorRadius * ((double) minor / profileSegments - 0.5);
+                    break;
+                default:
+                    throw new IllegalArgumentException("There is no such surface type.");
+            }
+        }
+
+        for (int minor = 0; minor < profileSegments; minor++) {
+            double middle = Math.toRadians((getProfileDegrees(minor) + getProfileDegrees(minor + 1)) / 2);
+            setProfileNormal(middleProfileNormalRadius, middleProfileNormalHeight, minor, middle);
+        }
+    }
+
+    /**
+     * The angle of the profile normal above the horizontal: around the whole minor circle for a torus,
+     * from the south to the north pole for a sphere, straight out for a cylinder.
+     */
+    private double getProfileAngle(int minor) {
+        switch (surfaceType) {
+            case TORUS:
+                return minor * Math.toRadians(minorAngle);
+            case SPHERE:
+                return minor == profileSegments ? Math.PI / 2 : minor * Math.toRadians(minorAngle) - Math.PI / 2;
+            case CYLINDER:
+                return 0;
+            default:
+                throw new IllegalArgumentException("There is no such surface type.");
+        }
+    }
+
+    /**
+     * The same angle in degrees for the facet middles. The last segment closes the torus circle or ends
+     * at the pole even when the step does not divide the circle.
+     */
+    private double getProfileDegrees(int minor) {
+        switch (surfaceType) {
+            case TORUS:
+                return minor == profileSegments ? 360 : minor * minorAngle;
+            case SPHERE:
+                return minor == profileSegments ? 90 : minor * minorAngle - 90;
+            case CYLINDER:
+                return 0;
+            default:
+                throw new IllegalArgumentException("There is no such surface type.");
+        }
+    }
+
+    private static void setProfileNormal(double[] normalRadius, double[] normalHeight, int minor, double angle) {
+        normalRadius[minor] = Math.cos(angle);
+        normalHeight[minor] = Math.sin(angle);
+    }
+
+    private static void fillTrigTable(double angle, double[] cos, double[] sin) {
+        double angleInRadians = Math.toRadians(angle);
+
+        for (int i = 0; i < cos.length; i++) {
+            cos[i] = Math.cos(i * angleInRadians);
+            sin[i] = Math.sin(i * angleInRadians);
+        }
+    }
+
+    /**
+     * The last step closes the circle, it ends at 360 degrees even when the angle does not divide it.
+     */
+    private static void fillMiddleTrigTable(double angle, double[] cos, double[] sin) {
+        for (int i = 0; i < cos.length; i++) {
+            double end = i + 1 < cos.length ? (i + 1) * angle : 360;
+            double middle = Math.toRadians((i * angle + end) / 2);
+            cos[i] = Math.cos(middle);
+            sin[i] = Math.sin(middle);
+        }
+    }
+
+    public SurfaceType getSurfaceType() {
+        return surfaceType;
+    }
+
+    public int getVertexCount() {
+        return profileSamples * revolutionSteps;
+    }
+
+    public int getFacetCount() {
+        return profileSegments * revolutionSteps;
+    }
+
+    public TorusMesh buildMesh() {
+        int vertexCount = getVertexCount();
+        double[] x = new double[vertexCount];
+        double[] y = new double[vertexCount];
+        double[] z = new double[vertexCount];
+
+        double[] normalX = new double[vertexCount];
+        double[] normalY = new double[vertexCount];
+        double[] normalZ = new double[vertexCount];
+
+        int facetCount = getFacetCount();
+        double[] facetNormalX = new double[facetCount];
+        double[] facetNormalY = new double[facetCount];
+        double[] facetNormalZ = new double[facetCount];
+
+        buildVertices(x, y, z);
+        buildNormals(normalX, normalY, normalZ);
+        buildFacetNormals(facetNormalX, facetNormalY, facetNormalZ);
+
+        return new TorusMesh.Builder()
+                .minorRadius(minorRadius)
+                .minorAngle(minorAngle)
+                .majorRadius(majorRadius)
+                .majorAngle(majorAngle)
+                .vertices(x, y, z)
+                .normals(normalX, normalY, normalZ)
+                .facetNormals(facetNormalX, facetNormalY, facetNormalZ)
+                .facets(buildFacetIndices())
+                .build();
+    }
+
+    public void buildVertices(double[] x, double[] y, double[] z) {
+        revolve(profileRadius, profileHeight, revolutionCos, revolutionSin, x, y, z);
+    }
+
+    /**
+     * Writes the outward unit normals in vertex order. The profile normal is revolved like a profile
+     * point, without the offset of the major radius.
+     */
+    public void buildNormals(double[] normalX, double[] normalY, double[] normalZ) {
+        revolve(profileNormalRadius, profileNormalHeight, revolutionCos, revolutionSin, normalX, normalY, normalZ);
+    }
+
+    /**
+     * Writes the outward unit normals in facet order, taken analytically at the middle of the profile
+     * and revolution steps each facet spans.
+     */
+    public void buildFacetNormals(double[] normalX, double[] normalY, double[] normalZ) {
+        revolve(middleProfileNormalRadius, middleProfileNormalHeight, middleRevolutionCos, middleRevolutionSin,
+                normalX, normalY, normalZ);
+    }
+
+    private void revolve(double[] profileRadius, double[] profileHeight, double[] revolutionCos,
+                         double[] revolutionSin, double[] x, double[] y, double[] z) {
+        int vertex = 0;
+
+        for (int major = 0; major < revolutionCos.length; major++) {
+            double cos = revolutionCos[major];
+            double sin = revolutionSin[major];
+
+            for (int minor = 0; minor < profileRadius.length; minor++) {
+                x[vertex] = profileRadius[minor] * cos;
+                z[vertex] = profileRadius[minor] * sin;
+                y[vertex] = profileHeight[minor];
+                vertex++;
+            }
+        }
+    }
+
+    /**
+     * Generates the transformed quads in facet index order without building the mesh. Only three
+     * rings of vertices are kept: the first one, which closes the revolution, the previous and
+     * the current one.
+     */
+    public void streamFacets(Matrix4 transformation, FacetVisitor visitor) {
+        double[][] firstRing = new double[3][profileSamples];
+        double[][] previousRing = new double[3][profileSamples];
+        double[][] currentRing = new double[3][profileSamples];
+        double[] cornerX = new double[TorusMesh.VERTICES_PER_FACET];
+        double[] cornerY = new double[TorusMesh.VERTICES_PER_FACET];
+        double[] cornerZ = new double[TorusMesh.VERTICES_PER_FACET];
+
+        buildRing(0, transformation, firstRing);
+        copyRing(firstRing, previousRing);
+
+        for (int major = 1; major <= revolutionSteps; major++) {
+            if (major < revolutionSteps) {
+                buildRing(major, transformation, currentRing);
+            } else {
+                copyRing(firstRing, currentRing);
+            }
+
+            int firstFacet = (major - 1) * profileSegments;
+
+            for (int minor = 0; minor < profileSegments; minor++) {
+                int nextMinor = (minor + 1) % profileSamples;
+                setCorner(cornerX, cornerY, cornerZ, 0, previousRing, minor);
+                setCorner(cornerX, cornerY, cornerZ, 1, previousRing, nextMinor);
+                setCorner(cornerX, cornerY, cornerZ, 2, currentRing, nextMinor);
+                setCorner(cornerX, cornerY, cornerZ, 3, currentRing, minor);
+                visitor.visitFacet(firstFacet + minor, cornerX, cornerY, cornerZ);
+            }
+
+            double[][] ring = previousRing;
+            previousRing = currentRing;
+            currentRing = ring;
+        }
+    }
+
+    private void buildRing(int major, Matrix4 transformation, double[][] ring) {
+        double cos = revolutionCos[major];
+        double sin = revolutionSin[major];
+
+        for (int minor = 0; minor < profileSamples; minor++) {
+            ring[0][minor] = profileRadius[minor] * cos;
+            ring[1][minor] = profileHeight[minor];
+            ring[2][minor] = profileRadius[minor] * sin;
+        }
+
+        transformation.transform(ring[0], ring[1], ring[2], ring[0], ring[1], ring[2], 0, profileSamples);
+    }
+
+    private static void copyRing(double[][] source, double[][] destination) {
+        for (int i = 0; i < source.length; i++) {
+            System.arraycopy(source[i], 0, destination[i], 0, source[i].length);
+        }
+    }
+
+    private static void setCorner(double[] x, double[] y, double[] z, int corner, double[][] ring, int minor) {
+        x[corner] = ring[0][minor];
+        y[corner] = ring[1][minor];
+        z[corner] = ring[2][minor];
+    }
+
+    public int[] buildFacetIndices() {
+        int vertexCount = getVertexCount();
+        int[] facets = new int[getFacetCount() * TorusMesh.VERTICES_PER_FACET];
+        int offset = 0;
+
+        for (int major = 0; major < revolutionSteps; major++) {
+            int section = major * profileSamples;
+
+            for (int minor = 0; minor < profileSegments; minor++) {
+                int current = section + minor;
+                int nextMinor = section + (minor + 1) % profileSamples;
+
+                facets[offset++] = current;
+                facets[offset++] = nextMinor;
+                facets[offset++] = (nextMinor + profileSamples) % vertexCount;
+                facets[offset++] = (current + profileSamples) % vertexCount;
+            }
+        }
+
+        return facets;
+    }
+}
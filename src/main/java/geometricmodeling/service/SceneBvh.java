@@ -0,0 +1,231 @@
+/*
+ * Copyright (c) 2019 Nikita Sokolov. All rights reserved.
+ */
+
+package geometricmodeling.service;
+
+import geometricmodeling.model.Matrix4;
+import geometricmodeling.model.SceneGraph;
+import geometricmodeling.model.TorusInstance;
+import geometricmodeling.model.TorusMesh;
+import geometricmodeling.util.MathUtils;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Bounding-volume hierarchy over the instance bounding spheres of a scene. A torus fits into a sphere
+ * of radius R + r around its center, scaled by the instance matrix. Nodes keep axis-aligned boxes in
+ * flat arrays and are tested as the spheres around those boxes, so a whole subtree outside the view
+ * volume is rejected with one test. Leaves cover contiguous ranges of the instance order.
+ */
+public class SceneBvh {
+    private static final int LEAF_SIZE = 4;
+
+    private final int instanceCount;
+    private final int[] order;
+    private final double[] centerX;
+    private final double[] centerY;
+    private final double[] centerZ;
+    private final double[] radius;
+
+    private final double[] minX;
+    private final double[] minY;
+    private final double[] minZ;
+    private final double[] maxX;
+    private final double[] maxY;
+    private final double[] maxZ;
+    private final int[] first;
+    private final int[] count;
+    private final int[] left;
+    private int nodeCount;
+
+    private final int[] stack;
+
+    public SceneBvh(SceneGraph scene) {
+        List<TorusInstance> instances = scene.getInstances();
+        instanceCount = instances.size();
+        order = new int[instanceCount];
+        centerX = new double[instanceCount];
+        centerY = new double[instanceCount];
+        centerZ = new double[instanceCount];
+        radius = new double[instanceCount];
+
+        for (int i = 0; i < instanceCount; i++) {
+            TorusInstance instance = instances.get(i);
+            TorusMesh mesh = instance.getMesh();
+            Matrix4 modelMatrix = instance.getModelMatrix();
+
+            order[i] = i;
+            centerX[i] = modelMatrix.get(3, 0);
+            centerY[i] = modelMatrix.get(3, 1);
+            centerZ[i] = modelMatrix.get(3, 2);
+            radius[i] = (mesh.getMajorRadius() + mesh.getMinorRadius()) * MathUtils.getScaleBound(modelMatrix);
+        }
+
+        int maxNodeCount = Math.max(1, 2 * instanceCount - 1);
+        minX = new double[maxNodeCount];
+        minY = new double[maxNodeCount];
+        minZ = new double[maxNodeCount];
+        maxX = new double[maxNodeCount];
+        maxY = new double[maxNodeCount];
+        maxZ = new double[maxNodeCount];
+        first = new int[maxNodeCount];
+        count = new int[maxNodeCount];
+        left = new int[maxNodeCount];
+        stack = new int[maxNodeCount];
+
+        nodeCount = 1;
+        build(0, 0, instanceCount);
+    }
+
+    public int getInstanceCount() {
+        return instanceCount;
+    }
+
+    public int getNodeCount() {
+        return nodeCount;
+    }
+
+    /**
+     * Writes the indices of the instances that may be seen through the view volume after the scene
+     * matrix into {@code visible} in ascending order and returns their number. Not thread-safe.
+     */
+    public int collectVisible(Matrix4 sceneMatrix, ViewVolume viewVolume, int[] visible) {
+        if (instanceCount == 0) {
+            return 0;
+        }
+
+        double scaleBound = MathUtils.getScaleBound(sceneMatrix);
+        int visibleCount = 0;
+        int stackSize = 0;
+        stack[stackSize++] = 0;
+
+        while (stackSize > 0) {
+            int node = stack[--stackSize];
+            double halfX = (maxX[node] - minX[node]) / 2;
+            double halfY = (maxY[node] - minY[node]) / 2;
+            double halfZ = (maxZ[node] - minZ[node]) / 2;
+            double nodeRadius = Math.sqrt(halfX * halfX + halfY * halfY + halfZ * halfZ);
+
+            if (!intersects(sceneMatrix, scaleBound, viewVolume, minX[node] + halfX, minY[node] + halfY,
+                    minZ[node] + halfZ, nodeRadius)) {
+                continue;
+            }
+
+            if (left[node] < 0) {
+                for (int i = first[node]; i < first[node] + count[node]; i++) {
+                    int instance = order[i];
+
+                    if (count[node] == 1 || intersects(sceneMatrix, scaleBound, viewVolume,
+                            centerX[instance], centerY[instance], centerZ[instance], radius[instance])) {
+                        visible[visibleCount++] = instance;
+                    }
+                }
+            } else {
+                stack[stackSize++] = left[node] + 1;
+                stack[stackSize++] = left[node];
+            }
+        }
+
+        Arrays.sort(visible, 0, visibleCount);
+        return visibleCount;
+    }
+
+    private static boolean intersects(Matrix4 sceneMatrix, double scaleBound, ViewVolume viewVolume,
+                                      double x, double y, double z, double radius) {
+        double viewX = x * sceneMatrix.get(0, 0) + y * sceneMatrix.get(1, 0) + z * sceneMatrix.get(2, 0)
+                + sceneMatrix.get(3, 0);
+        double viewY = x * sceneMatrix.get(0, 1) + y * sceneMatrix.get(1, 1) + z * sceneMatrix.get(2, 1)
+                + sceneMatrix.get(3, 1);
+        double viewZ = x * sceneMatrix.get(0, 2) + y * sceneMatrix.get(1, 2) + z * sceneMatrix.get(2, 2)
+                + sceneMatrix.get(3, 2);
+
+        return viewVolume.intersectsSphere(viewX, viewY, viewZ, radius * scaleBound);
+    }
+
+    /**
+     * Builds the node for {@code order[from, to)}, splitting at the median center along the longest
+     * axis of the box. Children are stored next to each other.
+     */
+    private void build(int node, int from, int to) {
+        double nodeMinX = Double.POSITIVE_INFINITY;
+        double nodeMinY = Double.POSITIVE_INFINITY;
+        double nodeMinZ = Double.POSITIVE_INFINITY;
+        double nodeMaxX = Double.NEGATIVE_INFINITY;
+        double nodeMaxY = Double.NEGATIVE_INFINITY;
+        double nodeMaxZ = Double.NEGATIVE_INFINITY;
+
+        for (int i = from; i < to; i++) {
+            int instance = order[i];
+            double instanceRadius = radius[instance];
+            nodeMinX = Math.min(nodeMinX, centerX[instance] - instanceRadius);
+            nodeMinY = Math.min(nodeMinY, centerY[instance] - instanceRadius);
+            nodeMinZ = Math.min(nodeMinZ, centerZ[instance] - instanceRadius);
+            nodeMaxX = Math.max(nodeMaxX, centerX[instance] + instanceRadius);
+            nodeMaxY = Math.max(nodeMaxY, centerY[instance] + instanceRadius);
+            nodeMaxZ = Math.max(nodeMaxZ, centerZ[instance] + instanceRadius);
+        }
+
+        minX[node] = nodeMinX;
+        minY[node] = nodeMinY;
+        minZ[node] = nodeMinZ;
+        maxX[node] = nodeMaxX;
+        maxY[node] = nodeMaxY;
+        maxZ[node] = nodeMaxZ;
+        first[node] = from;
+        count[node] = to - from;
+        left[node] = -1;
+
+        if (to - from <= LEAF_SIZE) {
+            return;
+        }
+
+        double extentX = nodeMaxX - nodeMinX;
+        double extentY = nodeMaxY - nodeMinY;
+        double extentZ = nodeMaxZ - nodeMinZ;
+        double[] keys = extentX >= extentY && extentX >= extentZ ? centerX : extentY >= extentZ ? centerY : centerZ;
+        int middle = (from + to) >>> 1;
+
+        select(keys, from, to - 1, middle);
+
+        int leftChild = nodeCount;
+        nodeCount += 2;
+        left[node] = leftChild;
+        build(leftChild, from, middle);
+        build(leftChild + 1, middle, to);
+    }
+
+    /**
+     * Partially sorts {@code order[from, to]} so that the element at {@code k} is where a full sort by
+     * the keys would put it, with nothing larger before it and nothing smaller after it.
+     */
+    private void select(double[] keys, int from, int to, int k) {
+        while (from < to) {
+            double pivot = keys[order[(from + to) >>> 1]];
+            int i = from;
+            int j = to;
+
+            while (i <= j) {
+                while (keys[order[i]] < pivot) i++;
+                while (keys[order[j]] > pivot) j--;
+
+                if (i <= j) {
+                    int swap = order[i];
+                    order[i] = order[j];
+                    order[j] = swap;
+                    i++;
+                    j--;
+                }
+            }
+
+            if (k <= j) {
+                to = j;
+            } else if (k >= i) {
+                from = i;
+            } else {
+                return;
+            }
+        }
+    }
+}
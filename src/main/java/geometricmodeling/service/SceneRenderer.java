@@ -0,0 +1,322 @@
+/*
+ * Copyright (c) 2019 Nikita Sokolov. All rights reserved.
+ */
+
+package geometricmodeling.service;
+
+import geometricmodeling.common.Constants;
+import geometricmodeling.model.Matrix4;
+import geometricmodeling.model.RenderRequest;
+import geometricmodeling.model.SceneGraph;
+import geometricmodeling.model.TorusInstance;
+import geometricmodeling.model.TorusMesh;
+import geometricmodeling.model.Viewport;
+import geometricmodeling.util.ColorUtils;
+import geometricmodeling.util.TorusUtils;
+import geometricmodeling.util.ViewportUtils;
+import javafx.scene.paint.Color;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Renders scene graphs with the depth test. Instances are spread over the executor, every thread
+ * borrows a worker with its own depth buffer and transform scratch arrays, so the shared base meshes
+ * are only read. The worker buffers are depth-resolved into the target once all instances are drawn.
+ * Instances whose bounding spheres miss the view volume are rejected through a {@link SceneBvh}
+ * before any of their vertices are transformed.
+ * Painter's ordering across instances is not supported, scenes always use the depth buffer.
+ */
+public class SceneRenderer {
+    private static final int STROKE_COLOR = ColorUtils.toArgb(Color.BLACK);
+    private static final int MAX_PALETTES = 64;
+
+    private final TransformExecutor executor;
+    private final Queue<Worker> idleWorkers = new ConcurrentLinkedQueue<>();
+    private final List<Worker> workers = new CopyOnWriteArrayList<>();
+
+    private SceneGraph bvhScene;
+    private SceneBvh bvh;
+    private int[] visibleInstances = new int[0];
+    private int culledInstanceCount;
+    private int drawnFacetCount;
+
+    public SceneRenderer(TransformExecutor executor) {
+        this.executor = executor;
+    }
+
+    public int getWorkerCount() {
+        return workers.size();
+    }
+
+    /**
+     * Instances rejected by the view-volume test in the last frame, summed over its views.
+     */
+    public int getCulledInstanceCount() {
+        return culledInstanceCount;
+    }
+
+    /**
+     * Facets left after back-face culling in the last frame, summed over its views.
+     */
+    public int getDrawnFacetCount() {
+        return drawnFacetCount;
+    }
+
+    /**
+     * Draws every instance transformed by its model matrix followed by the scene matrix. A perspective
+     * distance above 0 clips at the near plane and divides by the view depth.
+     */
+    public int render(ZBufferRasterizer target, SceneGraph scene, Matrix4 sceneMatrix, double perspectiveDistance,
+                      RenderRequest request, BooleanSupplier isCancelled) {
+        List<TorusInstance> instances = scene.getInstances();
+        SceneBvh sceneBvh = getBvh(scene);
+        AtomicInteger culledFacetCount = new AtomicInteger();
+        int[] visible = visibleInstances;
+        culledInstanceCount = 0;
+        drawnFacetCount = 0;
+
+        target.clear();
+        target.setDepthTest(true);
+
+        for (Viewport viewport : ViewportUtils.getViewports(request.getProjection(),
+                target.getWidth(), target.getHeight())) {
+            if (isCancelled.getAsBoolean()) {
+                break;
+            }
+
+            ViewVolume viewVolume = new ViewVolume(viewport, target.getWidth(), target.getHeight(),
+                    perspectiveDistance);
+            int visibleCount = sceneBvh.collectVisible(sceneMatrix, viewVolume, visible);
+            culledInstanceCount += instances.size() - visibleCount;
+
+            for (Worker worker : workers) {
+                worker.begin(target);
+            }
+
+            executor.forEachRange(visibleCount, (from, to) -> {
+                Worker worker = borrowWorker(target);
+
+                try {
+                    for (int i = from; i < to && !isCancelled.getAsBoolean(); i++) {
+                        culledFacetCount.addAndGet(worker.draw(instances.get(visible[i]), sceneMatrix,
+                                perspectiveDistance, viewport, request));
+                    }
+                } finally {
+                    idleWorkers.add(worker);
+                }
+            });
+
+            target.clearDepth();
+
+            for (Worker worker : workers) {
+                target.merge(worker.rasterizer);
+                drawnFacetCount += worker.drawnFacetCount;
+            }
+        }
+
+        return culledFacetCount.get();
+    }
+
+    /**
+     * Rebuilds the hierarchy when another scene is rendered or instances were added since the last frame.
+     */
+    private SceneBvh getBvh(SceneGraph scene) {
+        if (bvh == null || bvhScene != scene || bvh.getInstanceCount() != scene.getInstanceCount()) {
+            bvh = new SceneBvh(scene);
+            bvhScene = scene;
+            visibleInstances = new int[scene.getInstanceCount()];
+        }
+
+        return bvh;
+    }
+
+    private Worker borrowWorker(ZBufferRasterizer target) {
+        Worker worker = idleWorkers.poll();
+
+        if (worker == null || !worker.fits(target)) {
+            if (worker != null) {
+                workers.remove(worker);
+            }
+
+            worker = new Worker(target.getWidth(), target.getHeight());
+            workers.add(worker);
+        }
+
+        return worker;
+    }
+
+    private static class Worker {
+        private final ZBufferRasterizer rasterizer;
+        private final Matrix4 instanceMatrix = new Matrix4();
+        private final Matrix4 normalMatrix = new Matrix4();
+        private double[] x = new double[0];
+        private double[] y = new double[0];
+        private double[] z = new double[0];
+        private double[] normalX = new double[0];
+        private double[] normalY = new double[0];
+        private double[] normalZ = new double[0];
+        private double[] facetNormalX = new double[0];
+        private double[] facetNormalY = new double[0];
+        private double[] facetNormalZ = new double[0];
+        private double[] vertexShade = new double[0];
+        private RenderRequest shadedRequest;
+        private LambertShader shader;
+        private final Map<Color, ShadePalette> palettes = new HashMap<>();
+        private int drawnFacetCount;
+
+        private Worker(int width, int height) {
+            this.rasterizer = new ZBufferRasterizer(width, height);
+        }
+
+        private boolean fits(ZBufferRasterizer target) {
+            return rasterizer.getWidth() == target.getWidth() && rasterizer.getHeight() == target.getHeight();
+        }
+
+        private void begin(ZBufferRasterizer target) {
+            drawnFacetCount = 0;
+
+            if (fits(target)) {
+                rasterizer.clear();
+            }
+        }
+
+        private int draw(TorusInstance instance, Matrix4 sceneMatrix, double perspectiveDistance, Viewport viewport,
+                         RenderRequest request) {
+            TorusMesh baseMesh = instance.getMesh();
+            int vertexCount = baseMesh.getVertexCount();
+
+            if (x.length != vertexCount) {
+                x = new double[vertexCount];
+                y = new double[vertexCount];
+                z = new double[vertexCount];
+                normalX = new double[vertexCount];
+                normalY = new double[vertexCount];
+                normalZ = new double[vertexCount];
+            }
+
+            int facetCount = baseMesh.getFacetCount();
+
+            if (facetNormalX.length != facetCount) {
+                facetNormalX = new double[facetCount];
+                facetNormalY = new double[facetCount];
+                facetNormalZ = new double[facetCount];
+            }
+
+            Matrix4.multiply(instance.getModelMatrix(), sceneMatrix, instanceMatrix)
+                    .transform(baseMesh.getX(), baseMesh.getY(), baseMesh.getZ(), x, y, z, 0, vertexCount);
+
+            TorusMesh.Builder builder = new TorusMesh.Builder()
+                    .minorRadius(baseMesh.getMinorRadius())
+                    .minorAngle(baseMesh.getMinorAngle())
+                    .majorRadius(baseMesh.getMajorRadius())
+                    .majorAngle(baseMesh.getMajorAngle())
+                    .vertices(x, y, z)
+                    .facets(baseMesh.getFacets());
+
+            instanceMatrix.getNormalMatrix(normalMatrix);
+
+            if (baseMesh.hasNormals()) {
+                normalMatrix.transformDirections(baseMesh.getNormalX(), baseMesh.getNormalY(), baseMesh.getNormalZ(),
+                        normalX, normalY, normalZ, 0, vertexCount);
+                builder.normals(normalX, normalY, normalZ);
+            }
+
+            if (baseMesh.hasFacetNormals()) {
+                normalMatrix.transformDirections(baseMesh.getFacetNormalX(), baseMesh.getFacetNormalY(),
+                        baseMesh.getFacetNormalZ(), facetNormalX, facetNormalY, facetNormalZ, 0, facetCount);
+                builder.facetNormals(facetNormalX, facetNormalY, facetNormalZ);
+            }
+
+            TorusMesh mesh = builder.build();
+
+            if (perspectiveDistance > 0) {
+                mesh = divideByDepth(TorusUtils.clipNearPlane(mesh, Constants.NEAR_PLANE), perspectiveDistance);
+            }
+
+            int culledFacetCount = 0;
+
+            if (request.isBackFaceCulling()) {
+                TorusMesh visibleMesh = TorusUtils.cullBackFacets(mesh, viewport.getSortOrder());
+                culledFacetCount = mesh.getFacetCount() - visibleMesh.getFacetCount();
+                mesh = visibleMesh;
+            }
+
+            drawnFacetCount += mesh.getFacetCount();
+            TorusMesh facetMesh = mesh;
+            int color = ColorUtils.toArgb(instance.getColor());
+            LambertShader shader = getShader(request);
+
+            if (shader != null) {
+                ShadePalette palette = getPalette(instance.getColor());
+
+                if (mesh.hasNormals()) {
+                    rasterizer.drawMesh(mesh, null, viewport, shadeVertices(shader, mesh), palette, STROKE_COLOR);
+                } else {
+                    rasterizer.drawMesh(mesh, viewport,
+                            facet -> palette.getArgb(FrameRenderer.shadeFacet(shader, facetMesh, facet)),
+                            STROKE_COLOR);
+                }
+            } else {
+                rasterizer.drawMesh(mesh, viewport, facet -> color, STROKE_COLOR);
+            }
+
+            return culledFacetCount;
+        }
+
+        private LambertShader getShader(RenderRequest request) {
+            if (request != shadedRequest) {
+                shadedRequest = request;
+                shader = FrameRenderer.getShader(request);
+            }
+
+            return shader;
+        }
+
+        /**
+         * Instances share a few colors, their palettes are kept until the cache grows past its bound.
+         */
+        private ShadePalette getPalette(Color color) {
+            ShadePalette palette = palettes.get(color);
+
+            if (palette == null) {
+                if (palettes.size() >= MAX_PALETTES) {
+                    palettes.clear();
+                }
+
+                palette = new ShadePalette(color);
+                palettes.put(color, palette);
+            }
+
+            return palette;
+        }
+
+        private double[] shadeVertices(LambertShader shader, TorusMesh mesh) {
+            if (vertexShade.length < mesh.getVertexCount()) {
+                vertexShade = new double[mesh.getVertexCount()];
+            }
+
+            shader.shadeVertices(mesh, vertexShade);
+            return vertexShade;
+        }
+
+        private static TorusMesh divideByDepth(TorusMesh mesh, double perspectiveDistance) {
+            double[] meshX = mesh.getX();
+            double[] meshY = mesh.getY();
+            double[] meshZ = mesh.getZ();
+
+            for (int i = 0; i < mesh.getVertexCount(); i++) {
+                meshX[i] = meshX[i] * perspectiveDistance / meshZ[i];
+                meshY[i] = meshY[i] * perspectiveDistance / meshZ[i];
+            }
+
+            return mesh;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright (c) 2019 Nikita Sokolov. All rights reserved.
+ */
+
+package geometricmodeling.service;
+
+import geometricmodeling.util.ColorUtils;
+import javafx.scene.paint.Color;
+
+/**
+ * Precomputed ramp of shades of one model color, from black at intensity 0 to the color itself at 1.
+ * Intensities are quantized to the nearest level, so lit facets cost a table lookup of an ARGB value
+ * instead of a color computation. Immutable.
+ */
+public class ShadePalette {
+    public static final int LEVEL_COUNT = 256;
+
+    private static final int MAX_LEVEL = LEVEL_COUNT - 1;
+
+    private final Color color;
+    private final int[] argbShades = new int[LEVEL_COUNT];
+
+    public ShadePalette(Color color) {
+        this.color = color;
+        int argb = ColorUtils.toArgb(color);
+
+        for (int level = 0; level < LEVEL_COUNT; level++) {
+            argbShades[level] = ColorUtils.shade(argb, (double) level / MAX_LEVEL);
+        }
+    }
+
+    public Color getColor() {
+        return color;
+    }
+
+    /**
+     * Returns the level of the intensity clamped to [0, 1].
+     */
+    public static int getLevel(double intensity) {
+        if (intensity <= 0) {
+            return 0;
+        }
+
+        return intensity >= 1 ? MAX_LEVEL : (int) (intensity * MAX_LEVEL + 0.5);
+    }
+
+    public int getArgb(double intensity) {
+        return argbShades[getLevel(intensity)];
+    }
+
+    /**
+     * The ARGB shades by level, shared with the rasterizer. Must not be modified.
+     */
+    public int[] getArgbShades() {
+        return argbShades;
+    }
+
+    @Override
+    public String toString() {
+        return "ShadePalette{" +
+                "color=" + color +
+                ", levelCount=" + LEVEL_COUNT +
+                "}";
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2019 Nikita Sokolov. All rights reserved.
+ */
+
+package geometricmodeling.service;
+
+import geometricmodeling.model.PipelineStage;
+import geometricmodeling.model.StageTimings;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Accumulates the time, the allocated bytes and the facet counts of the pipeline stages of a frame
+ * with {@link System#nanoTime()} and the allocation counter of the current thread. A stage may be
+ * timed several times per frame, once per view, stages do not nest. Instances are confined to one
+ * thread, the disabled timer ignores every call.
+ */
+public class StageTimer {
+    public static final StageTimer DISABLED = new StageTimer(false);
+
+    private static final int STAGE_COUNT = PipelineStage.values().length;
+
+    private final boolean isEnabled;
+    private final com.sun.management.ThreadMXBean threadBean;
+    private final long[] nanos = new long[STAGE_COUNT];
+    private final long[] allocatedBytes = new long[STAGE_COUNT];
+    private final int[] facetCounts = new int[STAGE_COUNT];
+    private long stageStart;
+    private long stageAllocationStart;
+
+    public StageTimer() {
+        this(true);
+    }
+
+    private StageTimer(boolean isEnabled) {
+        this.isEnabled = isEnabled;
+        this.threadBean = isEnabled ? getAllocationBean() : null;
+        reset();
+    }
+
+    private static com.sun.management.ThreadMXBean getAllocationBean() {
+        ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+
+        if (threadBean instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean allocationBean = (com.sun.management.ThreadMXBean) threadBean;
+
+            if (allocationBean.isThreadAllocatedMemorySupported() && allocationBean.isThreadAllocatedMemoryEnabled()) {
+                return allocationBean;
+            }
+        }
+
+        return null;
+    }
+
+    public boolean isEnabled() {
+        return isEnabled;
+    }
+
+    public void reset() {
+        for (int i = 0; i < STAGE_COUNT; i++) {
+            nanos[i] = 0;
+            allocatedBytes[i] = threadBean == null ? -1 : 0;
+            facetCounts[i] = 0;
+        }
+    }
+
+    public void begin() {
+        if (!isEnabled) {
+            return;
+        }
+
+        stageAllocationStart = getAllocatedBytes();
+        stageStart = System.nanoTime();
+    }
+
+    /**
+     * Charges the time since {@link #begin()} to the stage, along with the facets it produced.
+     */
+    public void end(PipelineStage stage, int facetCount) {
+        if (!isEnabled) {
+            return;
+        }
+
+        int index = stage.ordinal();
+        nanos[index] += System.nanoTime() - stageStart;
+        facetCounts[index] += facetCount;
+
+        if (threadBean != null) {
+            allocatedBytes[index] += getAllocatedBytes() - stageAllocationStart;
+        }
+    }
+
+    private long getAllocatedBytes() {
+        return threadBean == null ? -1 : threadBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    public StageTimings getTimings() {
+        return isEnabled ? new StageTimings(nanos, allocatedBytes, facetCounts) : StageTimings.EMPTY;
+    }
+}
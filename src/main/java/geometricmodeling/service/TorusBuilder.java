@@ -7,7 +7,9 @@ package geometricmodeling.service;
 import geometricmodeling.model.Line;
 import geometricmodeling.model.Plane;
 import geometricmodeling.model.Point;
+import geometricmodeling.model.SurfaceType;
 import geometricmodeling.model.Torus;
+import geometricmodeling.model.TorusMesh;
 import geometricmodeling.util.MathUtils;
 
 import java.util.ArrayList;
@@ -52,22 +54,26 @@ public class TorusBuilder {
                 .build();
     }
 
-    private List<Point> buildPoints() {
-        List<Point> points = new ArrayList<>();
+    public TorusMesh buildMesh() {
+        return getSurfaceBuilder().buildMesh();
+    }
 
-        double minorAngleInRadians = Math.toRadians(minorAngle);
-        double majorAngleInRadians = Math.toRadians(majorAngle);
+    private RevolutionSurfaceBuilder getSurfaceBuilder() {
+        return new RevolutionSurfaceBuilder(SurfaceType.TORUS, minorRadius, minorAngle, majorRadius, majorAngle);
+    }
+
+    private List<Point> buildPoints() {
+        RevolutionSurfaceBuilder surfaceBuilder = getSurfaceBuilder();
+        int vertexCount = surfaceBuilder.getVertexCount();
+        double[] x = new double[vertexCount];
+        double[] y = new double[vertexCount];
+        double[] z = new double[vertexCount];
 
-        double R = majorRadius;
-        double r = minorRadius;
+        surfaceBuilder.buildVertices(x, y, z);
+        List<Point> points = new ArrayList<>(vertexCount);
 
-        for (int major = 0; major < majorRadiusApproximationPower; major++) {
-            for (int minor = 0; minor < minorRadiusApproximationPower; minor++) {
-                double x = (R + r * Math.cos(minor * minorAngleInRadians)) * Math.cos(major * majorAngleInRadians);
-                double z = (R + r * Math.cos(minor * minorAngleInRadians)) * Math.sin(major * majorAngleInRadians);
-                double y = r * Math.sin(minor * minorAngleInRadians);
-                points.add(new Point(x, y, z));
-            }
+        for (int i = 0; i < vertexCount; i++) {
+            points.add(new Point(x[i], y[i], z[i]));
         }
 
         return points;
@@ -120,4 +126,4 @@ public class TorusBuilder {
 
         return facets;
     }
-}
+}
\ No newline at end of file
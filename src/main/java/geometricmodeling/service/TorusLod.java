@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2019 Nikita Sokolov. All rights reserved.
+ */
+
+package geometricmodeling.service;
+
+import geometricmodeling.model.TorusMesh;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Pre-built levels of detail of one torus, from the requested tessellation down to three segments
+ * per circle. Every level roughly doubles the angle step, using steps that divide 360 degrees so
+ * the tessellation always closes.
+ */
+public class TorusLod {
+    private static final int[] ANGLE_STEPS = {
+            1, 2, 3, 4, 5, 6, 8, 9, 10, 12, 15, 18, 20, 24, 30, 36, 40, 45, 60, 72, 90, 120
+    };
+
+    private final double minorRadius;
+    private final double majorRadius;
+    private final List<TorusMesh> levels = new ArrayList<>();
+
+    public TorusLod(double minorRadius, double minorAngle, double majorRadius, double majorAngle, int levelCount) {
+        this(minorRadius, minorAngle, majorRadius, majorAngle, levelCount, new MeshCache(0));
+    }
+
+    public TorusLod(double minorRadius, double minorAngle, double majorRadius, double majorAngle, int levelCount,
+                    MeshCache meshCache) {
+        this.minorRadius = minorRadius;
+        this.majorRadius = majorRadius;
+
+        levels.add(meshCache.get(minorRadius, minorAngle, majorRadius, majorAngle));
+
+        double levelMinorAngle = minorAngle;
+        double levelMajorAngle = majorAngle;
+
+        while (levels.size() < levelCount) {
+            int nextMinorAngle = getAngleStep(levelMinorAngle * 2);
+            int nextMajorAngle = getAngleStep(levelMajorAngle * 2);
+
+            if (nextMinorAngle <= levelMinorAngle && nextMajorAngle <= levelMajorAngle) {
+                break;
+            }
+
+            levelMinorAngle = Math.max(levelMinorAngle, nextMinorAngle);
+            levelMajorAngle = Math.max(levelMajorAngle, nextMajorAngle);
+            levels.add(meshCache.get(minorRadius, levelMinorAngle, majorRadius, levelMajorAngle));
+        }
+    }
+
+    private static int getAngleStep(double angle) {
+        for (int step : ANGLE_STEPS) {
+            if (step >= angle) {
+                return step;
+            }
+        }
+
+        return ANGLE_STEPS[ANGLE_STEPS.length - 1];
+    }
+
+    public int getLevelCount() {
+        return levels.size();
+    }
+
+    public TorusMesh getLevel(int level) {
+        return levels.get(level);
+    }
+
+    /**
+     * Picks the coarsest level whose edges stay within the given screen length, then coarsens it
+     * further until the facet budget is met. The coarsest level is returned if nothing fits.
+     */
+    public int selectLevel(double pixelsPerUnit, double maxEdgePixels, int facetBudget) {
+        int selected = 0;
+
+        for (int level = levels.size() - 1; level >= 0; level--) {
+            TorusMesh mesh = levels.get(level);
+            double minorEdge = 2 * Math.PI * minorRadius * pixelsPerUnit * mesh.getMinorAngle() / 360;
+            double majorEdge = 2 * Math.PI * (majorRadius + minorRadius) * pixelsPerUnit * mesh.getMajorAngle() / 360;
+
+            if (minorEdge <= maxEdgePixels && majorEdge <= maxEdgePixels) {
+                selected = level;
+                break;
+            }
+        }
+
+        while (selected < levels.size() - 1 && levels.get(selected).getFacetCount() > facetBudget) {
+            selected++;
+        }
+
+        return selected;
+    }
+}
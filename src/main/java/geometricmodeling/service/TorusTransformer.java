@@ -4,259 +4,404 @@
 
 package geometricmodeling.service;
 
+import geometricmodeling.common.Constants;
 import geometricmodeling.model.Line;
+import geometricmodeling.model.Matrix4;
 import geometricmodeling.model.Plane;
 import geometricmodeling.model.Point;
 import geometricmodeling.model.Torus;
+import geometricmodeling.model.TorusMesh;
+import geometricmodeling.model.TransformOperation;
 import geometricmodeling.util.MathUtils;
+import geometricmodeling.util.TorusUtils;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.UnaryOperator;
 
+/**
+ * Transforms the object model or the mesh of a torus. Every public operation is counted per
+ * {@link TransformOperation} over all instances, for the monitoring.
+ */
 public class TorusTransformer {
+    private static final LongAdder[] OPERATION_COUNTS = createOperationCounts();
+
     private Torus torus;
+    private TorusMesh mesh;
+    private Matrix4 modelMatrix = new Matrix4();
+    private Matrix4 viewMatrix = new Matrix4();
+    private boolean isViewTransformation;
+    private TransformExecutor executor;
+    private boolean isReusingBuffers;
+    private TorusMesh frameMesh;
+
+    private static LongAdder[] createOperationCounts() {
+        LongAdder[] operationCounts = new LongAdder[TransformOperation.values().length];
+
+        for (int i = 0; i < operationCounts.length; i++) {
+            operationCounts[i] = new LongAdder();
+        }
 
-    public TorusTransformer(Torus torus) {
-        this.torus = torus;
+        return operationCounts;
     }
 
-    public Torus rotate(double rotationX, double rotationY, double rotationZ) {
-        List<Plane> newFacets = new ArrayList<>();
-        for (Plane facet : torus.getFacets()) {
+    public static long getOperationCount(TransformOperation operation) {
+        return OPERATION_COUNTS[operation.ordinal()].sum();
+    }
 
-            List<Line> newRibs = new ArrayList<>();
-            for (Line rib : facet.getLines()) {
+    private static void count(TransformOperation operation) {
+        OPERATION_COUNTS[operation.ordinal()].increment();
+    }
 
-                List<Point> newPoints = new ArrayList<>();
-                for (Point point : rib.getPoints()) {
-                    newPoints.add(rotatePoint(point, rotationX, rotationY, rotationZ));
-                }
+    public TorusTransformer(Torus torus) {
+        this(torus, TransformExecutor.sequential());
+    }
 
-                newRibs.add(new Line(newPoints.get(0), newPoints.get(newPoints.size() - 1)));
-            }
+    public TorusTransformer(Torus torus, TransformExecutor executor) {
+        this.torus = torus;
+        this.executor = executor;
+    }
 
-            newFacets.add(new Plane(newRibs.toArray()));
-        }
+    public TorusTransformer(TorusMesh mesh) {
+        this(mesh, TransformExecutor.sequential());
+    }
 
-        return new Torus.Builder()
-                .minorRadius(torus.getMinorRadius())
-                .minorAngle(torus.getMinorAngle())
-                .majorRadius(torus.getMajorRadius())
-                .majorAngle(torus.getMajorAngle())
-                .facets(newFacets)
-                .build();
+    public TorusTransformer(TorusMesh mesh, TransformExecutor executor) {
+        this.mesh = mesh;
+        this.executor = executor;
     }
 
-    private Point rotatePoint(Point point, double rX, double rY, double rZ) {
-        double[][] vector = MathUtils.toVector(point);
-        double[][] rotationMatrix = MathUtils.getRotationMatrix(rX, rY, rZ);
-        double[][] newMatrix = MathUtils.multiply(vector, rotationMatrix);
-        return new Point(newMatrix[0][0], newMatrix[0][1], newMatrix[0][2]);
+    public Torus rotate(double rotationX, double rotationY, double rotationZ) {
+        count(TransformOperation.ROTATE);
+        return transform(MathUtils.getRotationMatrix(rotationX, rotationY, rotationZ));
     }
 
     public Torus scale(double sX, double sY, double sZ) {
-        List<Plane> newFacets = new ArrayList<>();
-        for (Plane facet : torus.getFacets()) {
+        count(TransformOperation.SCALE);
+        return transform(MathUtils.getScalingMatrix(sX, sY, sZ));
+    }
 
-            List<Line> newRibs = new ArrayList<>();
-            for (Line rib : facet.getLines()) {
+    public Torus translate(double dX, double dY, double dZ) {
+        count(TransformOperation.TRANSLATE);
+        return transform(MathUtils.getTranslationMatrix(dX, dY, dZ));
+    }
 
-                List<Point> newPoints = new ArrayList<>();
-                for (Point point : rib.getPoints()) {
-                    newPoints.add(scalePoint(point, sX, sY, sZ));
-                }
+    public Torus perspective(double d) {
+        count(TransformOperation.PERSPECTIVE);
+        return transform(point -> perspectivePoint(point, d));
+    }
 
-                newRibs.add(new Line(newPoints.get(0), newPoints.get(newPoints.size() - 1)));
-            }
+    private Point perspectivePoint(Point point, double d) {
+        double z = Math.abs(point.getZ()) <= 0.1 ? 0.1 : Math.abs(point.getZ());
+        double x = point.getX() * d / z;
+        double y = point.getY() * d / z;
+        z = d;
+        return new Point(x, y, z);
+    }
 
-            newFacets.add(new Plane(newRibs.toArray()));
-        }
+    public Torus axonometric(double rX, double rY, double rZ) {
+        count(TransformOperation.AXONOMETRIC);
+        return transform(MathUtils.getRotationMatrix(rX, rY, rZ));
+    }
 
-        return new Torus.Builder()
-                .minorRadius(torus.getMinorRadius())
-                .minorAngle(torus.getMinorAngle())
-                .majorRadius(torus.getMajorRadius())
-                .majorAngle(torus.getMajorAngle())
-                .facets(newFacets)
-                .build();
+    public Torus oblique(double l, double alpha) {
+        count(TransformOperation.OBLIQUE);
+        return transform(MathUtils.getObliqueMatrix(l, alpha));
+    }
+
+    public Torus viewTransform(double rho, double phi, double theta) {
+        count(TransformOperation.VIEW_TRANSFORM);
+        return transform(MathUtils.getViewTransformationMatrix(rho, phi, theta));
     }
 
-    private Point scalePoint(Point point, double sX, double sY, double sZ) {
-        double[][] vector = MathUtils.toVector(point);
-        double[][] scalingMatrix = MathUtils.getScalingMatrix(sX, sY, sZ);
-        double[][] newMatrix = MathUtils.multiply(vector, scalingMatrix);
-        return new Point(newMatrix[0][0], newMatrix[0][1], newMatrix[0][2]);
+    private Torus transform(Matrix4 matrix) {
+        return transform(matrix::transform);
     }
 
-    public Torus translate(double dX, double dY, double dZ) {
-        List<Plane> newFacets = new ArrayList<>();
+    private Torus transform(UnaryOperator<Point> transformation) {
+        Map<Point, Integer> vertexIndices = new IdentityHashMap<>();
+        Map<Line, Integer> ribIndices = new IdentityHashMap<>();
+        List<Point> vertices = new ArrayList<>();
+        List<Line> ribs = new ArrayList<>();
+        List<Plane> facets = torus.getFacets();
+        int[][] facetRibs = new int[facets.size()][];
+
+        for (int i = 0; i < facetRibs.length; i++) {
+            List<Line> lines = facets.get(i).getLines();
+            facetRibs[i] = new int[lines.size()];
+
+            for (int j = 0; j < facetRibs[i].length; j++) {
+                Line rib = lines.get(j);
+                Integer ribIndex = ribIndices.get(rib);
+
+                if (ribIndex == null) {
+                    ribIndex = ribs.size();
+                    ribIndices.put(rib, ribIndex);
+                    ribs.add(rib);
+
+                    for (Point point : rib.getPoints()) {
+                        if (!vertexIndices.containsKey(point)) {
+                            vertexIndices.put(point, vertices.size());
+                            vertices.add(point);
+                        }
+                    }
+                }
 
-        for (Plane facet : torus.getFacets()) {
-            List<Line> newRibs = new ArrayList<>();
+                facetRibs[i][j] = ribIndex;
+            }
+        }
+
+        Point[] newVertices = new Point[vertices.size()];
+        executor.forEachRange(newVertices.length, (from, to) -> {
+            for (int i = from; i < to; i++) {
+                newVertices[i] = transformation.apply(vertices.get(i));
+            }
+        });
+
+        Line[] newRibs = new Line[ribs.size()];
+        executor.forEachRange(newRibs.length, (from, to) -> {
+            for (int i = from; i < to; i++) {
+                Line rib = ribs.get(i);
+                newRibs[i] = new Line(newVertices[vertexIndices.get(rib.getStartPoint())],
+                        newVertices[vertexIndices.get(rib.getEndPoint())]);
+            }
+        });
 
-            for (Line rib : facet.getLines()) {
-                List<Point> newPoints = new ArrayList<>();
+        Plane[] newFacets = new Plane[facetRibs.length];
+        executor.forEachRange(newFacets.length, (from, to) -> {
+            for (int i = from; i < to; i++) {
+                Object[] facetLines = new Object[facetRibs[i].length];
 
-                for (Point point : rib.getPoints()) {
-                    newPoints.add(translatePoint(point, dX, dY, dZ));
+                for (int j = 0; j < facetLines.length; j++) {
+                    facetLines[j] = newRibs[facetRibs[i][j]];
                 }
 
-                newRibs.add(new Line(newPoints.get(0), newPoints.get(newPoints.size() - 1)));
+                newFacets[i] = new Plane(facetLines);
             }
-
-            newFacets.add(new Plane(newRibs.toArray()));
-        }
+        });
 
         return new Torus.Builder()
                 .minorRadius(torus.getMinorRadius())
                 .minorAngle(torus.getMinorAngle())
                 .majorRadius(torus.getMajorRadius())
                 .majorAngle(torus.getMajorAngle())
-                .facets(newFacets)
+                .facets(new ArrayList<>(Arrays.asList(newFacets)))
                 .build();
     }
 
-    private Point translatePoint(Point point, double dX, double dY, double dZ) {
-        double[][] vector = MathUtils.toVector(point);
-        double[][] translationMatrix = MathUtils.getTranslationMatrix(dX, dY, dZ);
-        double[][] newMatrix = MathUtils.multiply(vector, translationMatrix);
-        return new Point(newMatrix[0][0], newMatrix[0][1], newMatrix[0][2]);
+    public TorusMesh rotateMesh(double rotationX, double rotationY, double rotationZ) {
+        count(TransformOperation.ROTATE);
+        return transformMesh(MathUtils.getRotationMatrix(rotationX, rotationY, rotationZ));
     }
 
-    public Torus perspective(double d) {
-        List<Plane> newFacets = new ArrayList<>();
+    public TorusMesh scaleMesh(double sX, double sY, double sZ) {
+        count(TransformOperation.SCALE);
+        return transformMesh(MathUtils.getScalingMatrix(sX, sY, sZ));
+    }
 
-        for (Plane facet : torus.getFacets()) {
-            List<Line> newRibs = new ArrayList<>();
+    public TorusMesh translateMesh(double dX, double dY, double dZ) {
+        count(TransformOperation.TRANSLATE);
+        return transformMesh(MathUtils.getTranslationMatrix(dX, dY, dZ));
+    }
 
-            for (Line rib : facet.getLines()) {
-                List<Point> newPoints = new ArrayList<>();
+    public void rotateModel(double rotationX, double rotationY, double rotationZ) {
+        count(TransformOperation.ROTATE);
+        modelMatrix.multiply(MathUtils.getRotationMatrix(rotationX, rotationY, rotationZ));
+    }
 
-                for (Point point : rib.getPoints()) {
-                    newPoints.add(perspectivePoint(point, d));
-                }
+    public void scaleModel(double sX, double sY, double sZ) {
+        count(TransformOperation.SCALE);
+        modelMatrix.multiply(MathUtils.getScalingMatrix(sX, sY, sZ));
+    }
 
-                newRibs.add(new Line(newPoints.get(0), newPoints.get(newPoints.size() - 1)));
-            }
+    public void translateModel(double dX, double dY, double dZ) {
+        count(TransformOperation.TRANSLATE);
+        modelMatrix.multiply(MathUtils.getTranslationMatrix(dX, dY, dZ));
+    }
 
-            newFacets.add(new Plane(newRibs.toArray()));
-        }
+    public Matrix4 getModelMatrix() {
+        return modelMatrix;
+    }
 
-        return new Torus.Builder()
-                .minorRadius(torus.getMinorRadius())
-                .minorAngle(torus.getMinorAngle())
-                .majorRadius(torus.getMajorRadius())
-                .majorAngle(torus.getMajorAngle())
-                .facets(newFacets)
-                .build();
+    public TorusMesh getMesh() {
+        return mesh;
     }
 
-    private Point perspectivePoint(Point point, double d) {
-        double z = Math.abs(point.getZ()) <= 0.1 ? 0.1 : Math.abs(point.getZ());
-        double x = point.getX() * d / z;
-        double y = point.getY() * d / z;
-        z = d;
-        return new Point(x, y, z);
+    /**
+     * Replaces the base mesh while keeping the model and view transformations, e.g. to switch
+     * between levels of detail.
+     */
+    public void setMesh(TorusMesh mesh) {
+        this.mesh = mesh;
     }
 
-    public Torus axonometric(double rX, double rY, double rZ) {
-        List<Plane> newFacets = new ArrayList<>();
+    /**
+     * Returns how many projected units one model unit spans around the model origin: the largest
+     * axis scale of the model-view matrix, divided by the depth for a perspective distance above 0.
+     */
+    public double getProjectedScale(double perspectiveDistance) {
+        Matrix4 modelView = getModelViewMatrix();
+        double scale = 0;
+
+        for (int row = 0; row < 3; row++) {
+            double x = modelView.get(row, 0);
+            double y = modelView.get(row, 1);
+            double z = modelView.get(row, 2);
+            scale = Math.max(scale, Math.sqrt(x * x + y * y + z * z));
+        }
 
-        for (Plane facet : torus.getFacets()) {
-            List<Line> newRibs = new ArrayList<>();
+        if (perspectiveDistance > 0) {
+            scale *= perspectiveDistance / Math.max(modelView.get(3, 2), Constants.NEAR_PLANE);
+        }
 
-            for (Line rib : facet.getLines()) {
-                List<Point> newPoints = new ArrayList<>();
+        return scale;
+    }
 
-                for (Point point : rib.getPoints()) {
-                    newPoints.add(axonometricPoint(point, rX, rY, rZ));
-                }
+    public void setViewTransformation(double rho, double phi, double theta) {
+        viewMatrix = MathUtils.getViewTransformationMatrix(rho, phi, theta);
+        isViewTransformation = true;
+    }
 
-                newRibs.add(new Line(newPoints.get(0), newPoints.get(newPoints.size() - 1)));
-            }
+    public void resetViewTransformation() {
+        viewMatrix.setIdentity();
+        isViewTransformation = false;
+    }
 
-            newFacets.add(new Plane(newRibs.toArray()));
-        }
+    public boolean isViewTransformation() {
+        return isViewTransformation;
+    }
 
-        return new Torus.Builder()
-                .minorRadius(torus.getMinorRadius())
-                .minorAngle(torus.getMinorAngle())
-                .majorRadius(torus.getMajorRadius())
-                .majorAngle(torus.getMajorAngle())
-                .facets(newFacets)
-                .build();
+    public boolean isReusingBuffers() {
+        return isReusingBuffers;
     }
 
-    private Point axonometricPoint(Point point, double rX, double rY, double rZ) {
-        return rotatePoint(point, rX, rY, rZ);
+    /**
+     * When enabled the projected meshes share one set of vertex arrays, each projection overwrites
+     * the previous result. Meant for animation, where a frame is dropped once it is rendered.
+     */
+    public void setReusingBuffers(boolean isReusingBuffers) {
+        this.isReusingBuffers = isReusingBuffers;
+        frameMesh = null;
     }
 
-    public Torus oblique(double l, double alpha) {
-        List<Plane> newFacets = new ArrayList<>();
-        for (Plane facet : torus.getFacets()) {
+    public TorusMesh modelMesh() {
+        count(TransformOperation.MODEL_VIEW);
+        return transformMesh(getModelViewMatrix());
+    }
 
-            List<Line> newRibs = new ArrayList<>();
-            for (Line rib : facet.getLines()) {
+    /**
+     * Divides by the view depth. Only a view transformation puts the camera in front of the model, the
+     * facets are then clipped at the near plane. Without one the depth is taken by its magnitude and
+     * clamped to the near plane instead, as the model around the origin would otherwise lose its half.
+     */
+    public TorusMesh perspectiveMesh(double d) {
+        count(TransformOperation.PERSPECTIVE);
+        TorusMesh viewMesh = transformMesh(getModelViewMatrix());
+        boolean isClipped = isViewTransformation;
+
+        if (isClipped) {
+            viewMesh = TorusUtils.clipNearPlane(viewMesh, Constants.NEAR_PLANE);
+        }
 
-                List<Point> newPoints = new ArrayList<>();
-                for (Point point : rib.getPoints()) {
-                    newPoints.add(obliquePoint(point, l, alpha));
-                }
+        double[] x = viewMesh.getX();
+        double[] y = viewMesh.getY();
+        double[] z = viewMesh.getZ();
 
-                newRibs.add(new Line(newPoints.get(0), newPoints.get(newPoints.size() - 1)));
+        executor.forEachRange(viewMesh.getVertexCount(), (from, to) -> {
+            for (int i = from; i < to; i++) {
+                double depth = isClipped ? z[i] : TorusUtils.getUnclippedDepth(z[i]);
+                x[i] = x[i] * d / depth;
+                y[i] = y[i] * d / depth;
             }
+        });
 
-            newFacets.add(new Plane(newRibs.toArray()));
-        }
+        return viewMesh;
+    }
 
-        return new Torus.Builder()
-                .minorRadius(torus.getMinorRadius())
-                .minorAngle(torus.getMinorAngle())
-                .majorRadius(torus.getMajorRadius())
-                .majorAngle(torus.getMajorAngle())
-                .facets(newFacets)
-                .build();
+    public TorusMesh axonometricMesh(double rX, double rY, double rZ) {
+        count(TransformOperation.AXONOMETRIC);
+        return transformMesh(getAxonometricMatrix(rX, rY, rZ));
     }
 
-    private Point obliquePoint(Point point, double l, double alpha) {
-        double[][] vector = MathUtils.toVector(point);
-        double[][] rotationMatrix = MathUtils.getObliqueMatrix(l, alpha);
+    public TorusMesh obliqueMesh(double l, double alpha) {
+        count(TransformOperation.OBLIQUE);
+        return transformMesh(getObliqueMatrix(l, alpha));
+    }
 
-        double[][] newMatrix = MathUtils.multiply(vector, rotationMatrix);
-        return new Point(newMatrix[0][0], newMatrix[0][1], newMatrix[0][2]);
+    public Matrix4 getAxonometricMatrix(double rX, double rY, double rZ) {
+        return getModelViewMatrix().multiply(MathUtils.getRotationMatrix(rX, rY, rZ));
     }
 
-    public Torus viewTransform(double rho, double phi, double theta) {
-        List<Plane> newFacets = new ArrayList<>();
-        for (Plane facet : torus.getFacets()) {
+    public Matrix4 getObliqueMatrix(double l, double alpha) {
+        Matrix4 obliqueMatrix = MathUtils.getObliqueMatrix(l, alpha);
+        // keeps the depth instead of flattening it, the drawer orders facets by it
+        obliqueMatrix.set(2, 2, 1.0);
+        return getModelViewMatrix().multiply(obliqueMatrix);
+    }
 
-            List<Line> newRibs = new ArrayList<>();
-            for (Line rib : facet.getLines()) {
+    public Matrix4 getModelViewMatrix() {
+        return Matrix4.multiply(modelMatrix, viewMatrix, new Matrix4());
+    }
 
-                List<Point> newPoints = new ArrayList<>();
-                for (Point point : rib.getPoints()) {
-                    newPoints.add(viewTransformPoint(point, rho, phi, theta));
-                }
+    private TorusMesh transformMesh(Matrix4 matrix) {
+        int vertexCount = mesh.getVertexCount();
+        TorusMesh newMesh;
+
+        if (isReusingBuffers && frameMesh != null && frameMesh.getFacets() == mesh.getFacets()
+                && frameMesh.hasNormals() == mesh.hasNormals()
+                && frameMesh.hasFacetNormals() == mesh.hasFacetNormals()) {
+            newMesh = frameMesh;
+        } else {
+            newMesh = copyMesh(vertexCount);
+            frameMesh = isReusingBuffers ? newMesh : null;
+        }
+
+        double[] newX = newMesh.getX();
+        double[] newY = newMesh.getY();
+        double[] newZ = newMesh.getZ();
+        Matrix4 normalMatrix = matrix.getNormalMatrix(new Matrix4());
 
-                newRibs.add(new Line(newPoints.get(0), newPoints.get(newPoints.size() - 1)));
+        executor.forEachRange(vertexCount, (from, to) -> {
+            matrix.transform(mesh.getX(), mesh.getY(), mesh.getZ(), newX, newY, newZ, from, to);
+
+            if (mesh.hasNormals()) {
+                normalMatrix.transformDirections(mesh.getNormalX(), mesh.getNormalY(), mesh.getNormalZ(),
+                        newMesh.getNormalX(), newMesh.getNormalY(), newMesh.getNormalZ(), from, to);
             }
+        });
 
-            newFacets.add(new Plane(newRibs.toArray()));
+        if (mesh.hasFacetNormals()) {
+            executor.forEachRange(mesh.getFacetCount(), (from, to) ->
+                    normalMatrix.transformDirections(mesh.getFacetNormalX(), mesh.getFacetNormalY(),
+                            mesh.getFacetNormalZ(), newMesh.getFacetNormalX(), newMesh.getFacetNormalY(),
+                            newMesh.getFacetNormalZ(), from, to));
         }
 
-        return new Torus.Builder()
-                .minorRadius(torus.getMinorRadius())
-                .minorAngle(torus.getMinorAngle())
-                .majorRadius(torus.getMajorRadius())
-                .majorAngle(torus.getMajorAngle())
-                .facets(newFacets)
-                .build();
+        return newMesh;
     }
 
-    private Point viewTransformPoint(Point point, double rho, double phi, double theta) {
-        double[][] vector = MathUtils.toVector(point);
-        double[][] viewTransformationMatrix = MathUtils.getViewTransformationMatrix(rho, phi, theta);
-        double[][] newMatrix = MathUtils.multiply(vector, viewTransformationMatrix);
-        return new Point(newMatrix[0][0], newMatrix[0][1], newMatrix[0][2]);
+    private TorusMesh copyMesh(int vertexCount) {
+        TorusMesh.Builder builder = new TorusMesh.Builder()
+                .minorRadius(mesh.getMinorRadius())
+                .minorAngle(mesh.getMinorAngle())
+                .majorRadius(mesh.getMajorRadius())
+                .majorAngle(mesh.getMajorAngle())
+                .vertices(new double[vertexCount], new double[vertexCount], new double[vertexCount])
+                .facets(mesh.getFacets());
+
+        if (mesh.hasNormals()) {
+            builder.normals(new double[vertexCount], new double[vertexCount], new double[vertexCount]);
+        }
+
+        if (mesh.hasFacetNormals()) {
+            int facetCount = mesh.getFacetCount();
+            builder.facetNormals(new double[facetCount], new double[facetCount], new double[facetCount]);
+        }
+
+        return builder.build();
     }
-}
+}
\ No newline at end of file
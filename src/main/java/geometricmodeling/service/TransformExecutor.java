@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2019 Nikita Sokolov. All rights reserved.
+ */
+
+package geometricmodeling.service;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Splits index ranges over a fork/join pool. Ranges not larger than the threshold run sequentially
+ * on the calling thread, so every element is always computed by the same kernel and the result
+ * does not depend on the parallelism.
+ */
+public class TransformExecutor {
+    private final ForkJoinPool pool;
+    private final int parallelism;
+    private final int threshold;
+
+    public TransformExecutor(int parallelism, int threshold) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be positive: " + parallelism);
+        }
+
+        if (threshold < 1) {
+            throw new IllegalArgumentException("Threshold must be positive: " + threshold);
+        }
+
+        this.parallelism = parallelism;
+        this.threshold = threshold;
+        this.pool = parallelism > 1 ? new ForkJoinPool(parallelism) : null;
+    }
+
+    public static TransformExecutor sequential() {
+        return new TransformExecutor(1, Integer.MAX_VALUE);
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public int getThreshold() {
+        return threshold;
+    }
+
+    public void forEachRange(int size, RangeTask task) {
+        if (pool == null || size <= threshold) {
+            task.run(0, size);
+        } else {
+            int chunk = Math.max(threshold, (size + parallelism * 4 - 1) / (parallelism * 4));
+            pool.invoke(new RangeAction(task, 0, size, chunk));
+        }
+    }
+
+    public void shutdown() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+
+    public interface RangeTask {
+        void run(int from, int to);
+    }
+
+    private static class RangeAction extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final RangeTask task;
+        private final int from;
+        private final int to;
+        private final int chunk;
+
+        private RangeAction(RangeTask task, int from, int to, int chunk) {
+            this.task = task;
+            this.from = from;
+            this.to = to;
+            this.chunk = chunk;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= chunk) {
+                task.run(from, to);
+            } else {
+                int middle = (from + to) >>> 1;
+                invokeAll(new RangeAction(task, from, middle, chunk), new RangeAction(task, middle, to, chunk));
+            }
+        }
+    }
+}
\ No newline at end of file
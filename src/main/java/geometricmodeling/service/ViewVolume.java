@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 2019 Nikita Sokolov. All rights reserved.
+ */
+
+package geometricmodeling.service;
+
+import geometricmodeling.common.Constants;
+import geometricmodeling.model.PlaneType;
+import geometricmodeling.model.Viewport;
+import geometricmodeling.util.ViewportUtils;
+
+/**
+ * The part of view space that lands on the frame buffer through one viewport. Spheres are tested
+ * conservatively: a sphere reported as outside cannot put a single pixel on the screen.
+ */
+public class ViewVolume {
+    private final Viewport viewport;
+    private final double width;
+    private final double height;
+    private final double perspectiveDistance;
+
+    /**
+     * A perspective distance above 0 divides by the view depth and rejects what is behind the near plane.
+     */
+    public ViewVolume(Viewport viewport, double width, double height, double perspectiveDistance) {
+        if (perspectiveDistance > 0 && viewport.getPlaneType() != PlaneType.XOY) {
+            throw new IllegalArgumentException("There is no such perspective plane: " + viewport.getPlaneType());
+        }
+
+        this.viewport = viewport;
+        this.width = width;
+        this.height = height;
+        this.perspectiveDistance = perspectiveDistance;
+    }
+
+    public boolean intersectsSphere(double x, double y, double z, double radius) {
+        if (perspectiveDistance > 0) {
+            return intersectsPerspectiveSphere(x, y, z, radius);
+        }
+
+        double screenX = ViewportUtils.getScreenX(viewport, x, z);
+        double screenY = ViewportUtils.getScreenY(viewport, y, z);
+        double screenRadius = radius * viewport.getScale();
+
+        return intersectsScreen(screenX - screenRadius, screenY - screenRadius,
+                screenX + screenRadius, screenY + screenRadius);
+    }
+
+    private boolean intersectsPerspectiveSphere(double x, double y, double z, double radius) {
+        if (z + radius < Constants.NEAR_PLANE) {
+            return false;
+        }
+
+        double nearZ = z - radius;
+
+        if (nearZ <= Constants.NEAR_PLANE) {
+            // the sphere reaches around the eye, its projection is unbounded
+            return true;
+        }
+
+        // the projection of the sphere stays inside the projection of its bounding box
+        double farZ = z + radius;
+        double minX = Math.min((x - radius) / nearZ, (x - radius) / farZ) * perspectiveDistance;
+        double maxX = Math.max((x + radius) / nearZ, (x + radius) / farZ) * perspectiveDistance;
+        double minY = Math.min((y - radius) / nearZ, (y - radius) / farZ) * perspectiveDistance;
+        double maxY = Math.max((y + radius) / nearZ, (y + radius) / farZ) * perspectiveDistance;
+
+        return intersectsScreen(
+                ViewportUtils.getScreenX(viewport, minX, 0), ViewportUtils.getScreenY(viewport, maxY, 0),
+                ViewportUtils.getScreenX(viewport, maxX, 0), ViewportUtils.getScreenY(viewport, minY, 0));
+    }
+
+    private boolean intersectsScreen(double minX, double minY, double maxX, double maxY) {
+        return maxX >= 0 && minX <= width && maxY >= 0 && minY <= height;
+    }
+}
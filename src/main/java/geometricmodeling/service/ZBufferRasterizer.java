@@ -0,0 +1,330 @@
+/*
+ * Copyright (c) 2019 Nikita Sokolov. All rights reserved.
+ */
+
+package geometricmodeling.service;
+
+import geometricmodeling.common.Constants;
+import geometricmodeling.model.SortOrder;
+import geometricmodeling.model.TorusMesh;
+import geometricmodeling.model.Viewport;
+import geometricmodeling.util.ViewportUtils;
+
+import java.util.Arrays;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Scanline rasterizer with a per-pixel depth buffer. Pixels are ARGB ints, depth grows towards the
+ * viewer the same way the painter's sort order does, so no facet ordering is needed. With the depth
+ * test disabled facets simply overwrite each other, which draws painter-ordered facets off-screen.
+ * Facets are filled either flat or with per-vertex intensities interpolated across them (Gouraud).
+ */
+public class ZBufferRasterizer {
+    private static final double EDGE_DEPTH_BIAS = 0.5;
+
+    private final int width;
+    private final int height;
+    private final int[] pixels;
+    private final double[] depth;
+    private final PolygonClipper clipper;
+    private boolean isDepthTest = true;
+
+    private double[] screenX = new double[0];
+    private double[] screenY = new double[0];
+    private double[] screenDepth = new double[0];
+
+    private final double[] xPoints = new double[TorusMesh.VERTICES_PER_FACET];
+    private final double[] yPoints = new double[TorusMesh.VERTICES_PER_FACET];
+    private final double[] depthPoints = new double[TorusMesh.VERTICES_PER_FACET];
+    private final double[] shadePoints = new double[TorusMesh.VERTICES_PER_FACET];
+
+    public ZBufferRasterizer(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.pixels = new int[width * height];
+        this.depth = new double[width * height];
+        this.clipper = new PolygonClipper(-Constants.CLIP_MARGIN, -Constants.CLIP_MARGIN,
+                width + Constants.CLIP_MARGIN, height + Constants.CLIP_MARGIN);
+        clear();
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public int[] getPixels() {
+        return pixels;
+    }
+
+    public void clear() {
+        Arrays.fill(pixels, 0);
+        clearDepth();
+    }
+
+    public void clearDepth() {
+        Arrays.fill(depth, Double.NEGATIVE_INFINITY);
+    }
+
+    /**
+     * Depth-resolves another buffer of the same size into this one: its pixels win where they are
+     * nearer, outline pixels without depth only fill empty pixels.
+     */
+    public void merge(ZBufferRasterizer other) {
+        if (other.width != width || other.height != height) {
+            throw new IllegalArgumentException("There is no such buffer size: " + other.width + "x" + other.height);
+        }
+
+        int[] otherPixels = other.pixels;
+        double[] otherDepth = other.depth;
+
+        for (int i = 0; i < pixels.length; i++) {
+            int pixel = otherPixels[i];
+
+            if (pixel != 0 && (otherDepth[i] > depth[i] || pixels[i] == 0)) {
+                pixels[i] = pixel;
+                depth[i] = Math.max(depth[i], otherDepth[i]);
+            }
+        }
+    }
+
+    public boolean isDepthTest() {
+        return isDepthTest;
+    }
+
+    public void setDepthTest(boolean isDepthTest) {
+        this.isDepthTest = isDepthTest;
+    }
+
+    public void drawMesh(TorusMesh mesh, Viewport viewport, IntUnaryOperator facetColor, int strokeColor) {
+        drawFacets(mesh, null, mesh.getFacetCount(), viewport, facetColor, null, null, strokeColor);
+    }
+
+    /**
+     * Draws the facets in the given order, which matters only when the depth test is disabled.
+     * The facet order may be {@code null}.
+     */
+    public void drawMesh(TorusMesh mesh, int[] facetOrder, Viewport viewport, IntUnaryOperator facetColor,
+                         int strokeColor) {
+        int facetCount = facetOrder == null ? mesh.getFacetCount() : facetOrder.length;
+        drawFacets(mesh, facetOrder, facetCount, viewport, facetColor, null, null, strokeColor);
+    }
+
+    /**
+     * Draws the facets Gouraud-shaded: the vertex intensities are interpolated across each facet and
+     * looked up in the palette. The facet order may be {@code null}.
+     */
+    public void drawMesh(TorusMesh mesh, int[] facetOrder, Viewport viewport, double[] vertexShade,
+                         ShadePalette palette, int strokeColor) {
+        int facetCount = facetOrder == null ? mesh.getFacetCount() : facetOrder.length;
+        drawFacets(mesh, facetOrder, facetCount, viewport, null, vertexShade, palette, strokeColor);
+    }
+
+    private void drawFacets(TorusMesh mesh, int[] facetOrder, int facetCount, Viewport viewport,
+                            IntUnaryOperator facetColor, double[] vertexShade, ShadePalette palette,
+                            int strokeColor) {
+        projectVertices(mesh, viewport);
+        int[] facets = mesh.getFacets();
+
+        for (int i = 0; i < facetCount; i++) {
+            int facet = facetOrder == null ? i : facetOrder[i];
+            int offset = facet * TorusMesh.VERTICES_PER_FACET;
+
+            for (int corner = 0; corner < TorusMesh.VERTICES_PER_FACET; corner++) {
+                int vertex = facets[offset + corner];
+                xPoints[corner] = screenX[vertex];
+                yPoints[corner] = screenY[vertex];
+                depthPoints[corner] = screenDepth[vertex];
+            }
+
+            if (vertexShade == null) {
+                drawPolygon(xPoints, yPoints, depthPoints, TorusMesh.VERTICES_PER_FACET,
+                        facetColor.applyAsInt(facet), strokeColor);
+            } else {
+                for (int corner = 0; corner < TorusMesh.VERTICES_PER_FACET; corner++) {
+                    shadePoints[corner] = vertexShade[facets[offset + corner]];
+                }
+
+                drawPolygon(xPoints, yPoints, depthPoints, shadePoints, TorusMesh.VERTICES_PER_FACET, palette,
+                        strokeColor);
+            }
+        }
+    }
+
+    /**
+     * Clips a screen-space polygon to the buffer, then fills and outlines it.
+     */
+    public void drawPolygon(double[] xPoints, double[] yPoints, double[] depthPoints, int size, int fillColor,
+                            int strokeColor) {
+        int clippedSize = clipper.clip(xPoints, yPoints, depthPoints, size);
+
+        if (clippedSize == 0) {
+            return;
+        }
+
+        fillPolygon(clipper.getX(), clipper.getY(), clipper.getDepth(), clippedSize, fillColor);
+        strokePolygon(clipper.getX(), clipper.getY(), clipper.getDepth(), clippedSize, strokeColor);
+    }
+
+    /**
+     * Clips a screen-space polygon with vertex intensities, then fills it Gouraud-shaded and outlines it.
+     */
+    public void drawPolygon(double[] xPoints, double[] yPoints, double[] depthPoints, double[] shadePoints, int size,
+                            ShadePalette palette, int strokeColor) {
+        int clippedSize = clipper.clip(xPoints, yPoints, depthPoints, shadePoints, size);
+
+        if (clippedSize == 0) {
+            return;
+        }
+
+        fillPolygon(clipper.getX(), clipper.getY(), clipper.getDepth(), clipper.getShade(), clippedSize, palette);
+        strokePolygon(clipper.getX(), clipper.getY(), clipper.getDepth(), clippedSize, strokeColor);
+    }
+
+    private void projectVertices(TorusMesh mesh, Viewport viewport) {
+        int vertexCount = mesh.getVertexCount();
+        double[] x = mesh.getX();
+        double[] y = mesh.getY();
+        double[] z = mesh.getZ();
+
+        if (screenX.length < vertexCount) {
+            screenX = new double[vertexCount];
+            screenY = new double[vertexCount];
+            screenDepth = new double[vertexCount];
+        }
+
+        SortOrder depthOrder = viewport.getSortOrder();
+
+        for (int i = 0; i < vertexCount; i++) {
+            screenX[i] = ViewportUtils.getScreenX(viewport, x[i], z[i]);
+            screenY[i] = ViewportUtils.getScreenY(viewport, y[i], z[i]);
+            screenDepth[i] = ViewportUtils.getDepth(depthOrder, x[i], y[i], z[i]);
+        }
+    }
+
+    public void fillPolygon(double[] xPoints, double[] yPoints, double[] depthPoints, int size, int color) {
+        for (int i = 1; i < size - 1; i++) {
+            fillTriangle(xPoints[0], yPoints[0], depthPoints[0],
+                    xPoints[i], yPoints[i], depthPoints[i],
+                    xPoints[i + 1], yPoints[i + 1], depthPoints[i + 1], color, null, 0, 0, 0);
+        }
+    }
+
+    /**
+     * Fills the polygon as a triangle fan with the interpolated intensities looked up in the palette.
+     * When all corners fall on one palette level every pixel would too, so the polygon is filled flat
+     * with that shade and skips the per-pixel interpolation.
+     */
+    public void fillPolygon(double[] xPoints, double[] yPoints, double[] depthPoints, double[] shadePoints, int size,
+                            ShadePalette palette) {
+        int[] shades = palette.getArgbShades();
+        int level = ShadePalette.getLevel(shadePoints[0]);
+        boolean isFlat = true;
+
+        for (int i = 1; i < size && isFlat; i++) {
+            isFlat = ShadePalette.getLevel(shadePoints[i]) == level;
+        }
+
+        if (isFlat) {
+            fillPolygon(xPoints, yPoints, depthPoints, size, shades[level]);
+            return;
+        }
+
+        for (int i = 1; i < size - 1; i++) {
+            fillTriangle(xPoints[0], yPoints[0], depthPoints[0],
+                    xPoints[i], yPoints[i], depthPoints[i],
+                    xPoints[i + 1], yPoints[i + 1], depthPoints[i + 1], 0, shades,
+                    shadePoints[0], shadePoints[i], shadePoints[i + 1]);
+        }
+    }
+
+    public void strokePolygon(double[] xPoints, double[] yPoints, double[] depthPoints, int size, int color) {
+        for (int i = 0; i < size; i++) {
+            int next = (i + 1) % size;
+            strokeLine(xPoints[i], yPoints[i], depthPoints[i], xPoints[next], yPoints[next], depthPoints[next], color);
+        }
+    }
+
+    private void fillTriangle(double x0, double y0, double d0, double x1, double y1, double d1,
+                              double x2, double y2, double d2, int color, int[] shades,
+                              double s0, double s1, double s2) {
+        double area = (x1 - x0) * (y2 - y0) - (x2 - x0) * (y1 - y0);
+
+        if (area == 0 || Double.isNaN(area)) {
+            return;
+        }
+
+        int minX = Math.max(0, (int) Math.floor(Math.min(x0, Math.min(x1, x2))));
+        int maxX = Math.min(width - 1, (int) Math.ceil(Math.max(x0, Math.max(x1, x2))));
+        int minY = Math.max(0, (int) Math.floor(Math.min(y0, Math.min(y1, y2))));
+        int maxY = Math.min(height - 1, (int) Math.ceil(Math.max(y0, Math.max(y1, y2))));
+
+        if (minX > maxX || minY > maxY) {
+            return;
+        }
+
+        double sign = area > 0 ? 1 : -1;
+        double inverseArea = 1 / area;
+
+        // edge functions are linear in x, so each scanline only adds their x steps
+        double stepX0 = -(y2 - y1) * sign;
+        double stepX1 = -(y0 - y2) * sign;
+        double stepX2 = -(y1 - y0) * sign;
+
+        for (int py = minY; py <= maxY; py++) {
+            double sampleY = py + 0.5;
+            double sampleX = minX + 0.5;
+
+            double w0 = ((x2 - x1) * (sampleY - y1) - (y2 - y1) * (sampleX - x1)) * sign;
+            double w1 = ((x0 - x2) * (sampleY - y2) - (y0 - y2) * (sampleX - x2)) * sign;
+            double w2 = ((x1 - x0) * (sampleY - y0) - (y1 - y0) * (sampleX - x0)) * sign;
+            int index = py * width + minX;
+
+            for (int px = minX; px <= maxX; px++, index++) {
+                if (w0 >= 0 && w1 >= 0 && w2 >= 0) {
+                    double pixelDepth = (w0 * d0 + w1 * d1 + w2 * d2) * sign * inverseArea;
+
+                    if (!isDepthTest || pixelDepth > depth[index]) {
+                        depth[index] = pixelDepth;
+                        pixels[index] = shades == null ? color
+                                : shades[ShadePalette.getLevel((w0 * s0 + w1 * s1 + w2 * s2) * sign * inverseArea)];
+                    }
+                }
+
+                w0 += stepX0;
+                w1 += stepX1;
+                w2 += stepX2;
+            }
+        }
+    }
+
+    private void strokeLine(double x0, double y0, double d0, double x1, double y1, double d1, int color) {
+        double dx = x1 - x0;
+        double dy = y1 - y0;
+        int steps = (int) Math.ceil(Math.max(Math.abs(dx), Math.abs(dy)));
+
+        if (steps > 2 * (width + height)) {
+            steps = 2 * (width + height);
+        }
+
+        for (int i = 0; i <= steps; i++) {
+            double t = steps == 0 ? 0 : (double) i / steps;
+            int px = (int) Math.floor(x0 + dx * t);
+            int py = (int) Math.floor(y0 + dy * t);
+
+            if (px < 0 || px >= width || py < 0 || py >= height) {
+                continue;
+            }
+
+            int index = py * width + px;
+            double pixelDepth = d0 + (d1 - d0) * t;
+
+            if (!isDepthTest || pixelDepth >= depth[index] - EDGE_DEPTH_BIAS) {
+                pixels[index] = color;
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,200 @@
+/*
+ * Copyright (c) 2019 Nikita Sokolov. All rights reserved.
+ */
+
+package geometricmodeling.util;
+
+import geometricmodeling.common.Constants;
+import geometricmodeling.model.BatchFrame;
+import geometricmodeling.model.Light;
+import geometricmodeling.model.Projection;
+import geometricmodeling.model.RenderMode;
+import geometricmodeling.model.RenderRequest;
+import geometricmodeling.model.SurfaceType;
+import javafx.scene.paint.Color;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads batch parameter files. Every non-empty line that is not a {@code #} comment describes one frame
+ * as whitespace-separated {@code key=value} pairs, for example
+ * {@code minorRadius=20 minorAngle=10 majorRadius=60 majorAngle=10 projection=perspective d=300}.
+ * Values carry over from line to line, so a sequence only has to state what changes. View parameters
+ * that are never given are 0, like empty fields of the form. The {@code surface} is a torus unless it is
+ * set to {@code sphere} or {@code cylinder}, which take the minor radius as their radius and the major
+ * radius as the cylinder height.
+ */
+public final class BatchFileUtils {
+    public static final String SURFACE = "surface";
+    public static final String MINOR_RADIUS = "minorRadius";
+    public static final String MINOR_ANGLE = "minorAngle";
+    public static final String MAJOR_RADIUS = "majorRadius";
+    public static final String MAJOR_ANGLE = "majorAngle";
+    public static final String ROTATION_X = "rotationX";
+    public static final String ROTATION_Y = "rotationY";
+    public static final String ROTATION_Z = "rotationZ";
+    public static final String PROJECTION = "projection";
+    public static final String RENDER_MODE = "renderMode";
+    public static final String BACK_FACE_CULLING = "backFaceCulling";
+    public static final String VIEW_TRANSFORMATION = "viewTransformation";
+    public static final String LIGHT = "light";
+    public static final String COLOR = "color";
+
+    private static final String COMMENT = "#";
+    private static final String SEPARATOR = "=";
+    private static final String LIGHT_OFF = "off";
+    private static final List<String> VIEW_PARAMETERS = Arrays.asList(Constants.PHI, Constants.RHO,
+            Constants.THETA, Constants.D, Constants.RX_AXONOMETRIC, Constants.RY_AXONOMETRIC,
+            Constants.RZ_AXONOMETRIC, Constants.L, Constants.ALPHA);
+    private static final List<String> KEYS = Arrays.asList(SURFACE, MINOR_RADIUS, MINOR_ANGLE, MAJOR_RADIUS,
+            MAJOR_ANGLE, ROTATION_X, ROTATION_Y, ROTATION_Z, PROJECTION, RENDER_MODE, BACK_FACE_CULLING,
+            VIEW_TRANSFORMATION, LIGHT, COLOR);
+
+    private BatchFileUtils() {
+    }
+
+    public static List<BatchFrame> readFrames(Path path) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            return readFrames(reader);
+        }
+    }
+
+    public static List<BatchFrame> readFrames(BufferedReader reader) throws IOException {
+        List<BatchFrame> frames = new ArrayList<>();
+        Map<String, String> values = new HashMap<>();
+        int lineNumber = 0;
+        String line;
+
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            line = line.trim();
+
+            if (line.isEmpty() || line.startsWith(COMMENT)) {
+                continue;
+            }
+
+            for (String pair : line.split("\\s+")) {
+                int separator = pair.indexOf(SEPARATOR);
+                String key = separator < 0 ? pair : pair.substring(0, separator);
+
+                if (separator < 0 || (!KEYS.contains(key) && !VIEW_PARAMETERS.contains(key))) {
+                    throw new IllegalArgumentException("There is no such batch parameter: " + pair
+                            + " (line " + lineNumber + ")");
+                }
+
+                values.put(key, pair.substring(separator + 1));
+            }
+
+            try {
+                frames.add(createFrame(values));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException(e.getMessage() + " (line " + lineNumber + ")", e);
+            }
+        }
+
+        return frames;
+    }
+
+    private static BatchFrame createFrame(Map<String, String> values) {
+        int minorRadius = getPositiveInt(values, MINOR_RADIUS);
+        int minorAngle = getPositiveInt(values, MINOR_ANGLE);
+        int majorRadius = getPositiveInt(values, MAJOR_RADIUS);
+        int majorAngle = getPositiveInt(values, MAJOR_ANGLE);
+        Map<String, Double> viewParameters = new HashMap<>();
+
+        for (String key : VIEW_PARAMETERS) {
+            viewParameters.put(key, getDouble(values, key));
+        }
+
+        String light = values.getOrDefault(LIGHT, LIGHT_OFF);
+        boolean isLightSelected = !light.equals(LIGHT_OFF);
+        RenderRequest request = new RenderRequest.Builder()
+                .projection(getProjection(values.getOrDefault(PROJECTION, Projection.AXONOMETRIC.toString())))
+                .renderMode(getRenderMode(values.getOrDefault(RENDER_MODE, RenderMode.Z_BUFFER.toString())))
+                .backFaceCulling(Boolean.parseBoolean(values.get(BACK_FACE_CULLING)))
+                .lightSelected(isLightSelected)
+                .color(Color.web(values.getOrDefault(COLOR, Color.DODGERBLUE.toString())))
+                .ambientLight(Constants.AMBIENT_LIGHT)
+                .lights(isLightSelected ? Collections.singletonList(getLight(light)) : Collections.emptyList())
+                .build();
+
+        return new BatchFrame.Builder()
+                .surface(getSurfaceType(values.getOrDefault(SURFACE, SurfaceType.TORUS.toString())))
+                .torus(minorRadius, minorAngle, majorRadius, majorAngle)
+                .rotation(getDouble(values, ROTATION_X), getDouble(values, ROTATION_Y), getDouble(values, ROTATION_Z))
+                .viewTransformation(Boolean.parseBoolean(values.get(VIEW_TRANSFORMATION)))
+                .viewParameters(viewParameters)
+                .request(request)
+                .build();
+    }
+
+    private static int getPositiveInt(Map<String, String> values, String key) {
+        String value = values.get(key);
+        int number = value == null ? 0 : Integer.parseInt(value);
+
+        if (number <= 0) {
+            throw new IllegalArgumentException("Batch parameter must be positive: " + key + "=" + value);
+        }
+
+        return number;
+    }
+
+    private static double getDouble(Map<String, String> values, String key) {
+        String value = values.get(key);
+        return value == null ? 0 : Double.parseDouble(value);
+    }
+
+    /**
+     * The light is given as the direction towards it, {@code x,y,z}, like the light position fields.
+     */
+    private static Light getLight(String value) {
+        String[] coordinates = value.split(",");
+
+        if (coordinates.length != 3) {
+            throw new IllegalArgumentException("There is no such light direction: " + value);
+        }
+
+        return new Light(Double.parseDouble(coordinates[0]), Double.parseDouble(coordinates[1]),
+                Double.parseDouble(coordinates[2]), Constants.LIGHT_INTENSITY);
+    }
+
+    private static SurfaceType getSurfaceType(String name) {
+        for (SurfaceType surfaceType : SurfaceType.values()) {
+            if (surfaceType.toString().equals(name)) {
+                return surfaceType;
+            }
+        }
+
+        throw new IllegalArgumentException("There is no such surface: " + name);
+    }
+
+    private static Projection getProjection(String name) {
+        for (Projection projection : Projection.values()) {
+            if (projection.toString().equals(name)) {
+                return projection;
+            }
+        }
+
+        throw new IllegalArgumentException("There is no such projection: " + name);
+    }
+
+    private static RenderMode getRenderMode(String name) {
+        for (RenderMode renderMode : RenderMode.values()) {
+            if (renderMode.toString().equals(name)) {
+                return renderMode;
+            }
+        }
+
+        throw new IllegalArgumentException("There is no such render mode: " + name);
+    }
+}
@@ -0,0 +1,31 @@
+/*
+ * Copyright (c) 2019 Nikita Sokolov. All rights reserved.
+ */
+
+package geometricmodeling.util;
+
+import javafx.scene.paint.Color;
+
+public final class ColorUtils {
+    private ColorUtils() {
+    }
+
+    public static int toArgb(Color color) {
+        return ((int) Math.round(color.getOpacity() * 255) << 24)
+                | ((int) Math.round(color.getRed() * 255) << 16)
+                | ((int) Math.round(color.getGreen() * 255) << 8)
+                | (int) Math.round(color.getBlue() * 255);
+    }
+
+    /**
+     * Scales the color channels of an ARGB color by the intensity clamped to [0, 1], keeping the alpha.
+     */
+    public static int shade(int argb, double intensity) {
+        double factor = intensity < 0 ? 0 : intensity > 1 ? 1 : intensity;
+        int red = (int) (((argb >> 16) & 0xFF) * factor);
+        int green = (int) (((argb >> 8) & 0xFF) * factor);
+        int blue = (int) ((argb & 0xFF) * factor);
+
+        return (argb & 0xFF000000) | (red << 16) | (green << 8) | blue;
+    }
+}
\ No newline at end of file
@@ -5,8 +5,8 @@
 package geometricmodeling.util;
 
 import geometricmodeling.model.Line;
+import geometricmodeling.model.Matrix4;
 import geometricmodeling.model.Point;
-import geometricmodeling.model.ProjectionView;
 
 import java.util.List;
 
@@ -37,167 +37,92 @@ public final class MathUtils {
         return new Line(line.getEndPoint(), line.getStartPoint());
     }
 
-    public static double[][] toVector(Point point) {
-        return new double[][]{
-                {point.getX(), point.getY(), point.getZ(), point.getW()}
-        };
-    }
-
-    public static double[] calculateXPointsByCenterAndScale(Point[] points, Point center, double scale) {
-        double[] xPoints = new double[points.length];
-
-        for (int i = 0; i < points.length; i++) {
-            xPoints[i] = center.getX() + points[i].getX() * scale;
-        }
-
-        return xPoints;
-    }
-
-    public static double[] calculateYPointsByCenterAndScale(Point[] points, Point center, double scale) {
-        double[] yPoints = new double[points.length];
-
-        for (int i = 0; i < points.length; i++) {
-            yPoints[i] = center.getY() + points[i].getY() * scale;
-        }
-
-        return yPoints;
-    }
-
-    public static double[] calculateZPointsByCenterAndScale(Point[] points, Point center, double scale,
-                                                            ProjectionView projectionView) {
-        double[] zPoints = new double[points.length];
-        double zCenter;
-
-        switch (projectionView) {
-            case TOP:
-                zCenter = center.getY();
-                break;
-            case SIDE:
-                zCenter = center.getX();
-                break;
-            default:
-                throw new IllegalArgumentException("There is no such projection view.");
-        }
-
-        for (int i = 0; i < points.length; i++) {
-            zPoints[i] = zCenter + points[i].getZ() * scale;
-        }
-
-        return zPoints;
-    }
-
-    public static double[][] multiply(double[][] matrixA, double[][] matrixB) {
-        int matrixARows = matrixA.length;
-        int matrixAColumns = matrixA[0].length;
-        int matrixBRows = matrixB.length;
-        int matrixBColumns = matrixB[0].length;
-
-        if (matrixAColumns != matrixBRows) {
-            throw new IllegalArgumentException("Columns in matrix a: " + matrixAColumns
-                    + " didn't match rows in matrix b: " + matrixBRows);
-        }
-
-        double[][] matrixC = new double[matrixARows][matrixBColumns];
-
-        for (int i = 0; i < matrixARows; i++) {
-            for (int j = 0; j < matrixBColumns; j++) {
-                for (int k = 0; k < matrixAColumns; k++) {
-                    matrixC[i][j] += matrixA[i][k] * matrixB[k][j];
-                }
+    public static Matrix4 getRotationMatrix(double rX, double rY, double rZ) {
+        double cosX = Math.cos(Math.toRadians(rX));
+        double sinX = Math.sin(Math.toRadians(rX));
+        double cosY = Math.cos(Math.toRadians(rY));
+        double sinY = Math.sin(Math.toRadians(rY));
+        double cosZ = Math.cos(Math.toRadians(rZ));
+        double sinZ = Math.sin(Math.toRadians(rZ));
+
+        // X * Y * Z rotation product expanded in closed form
+        return new Matrix4(
+                cosY * cosZ, cosY * sinZ, -sinY, 0.0,
+                sinX * sinY * cosZ - cosX * sinZ, sinX * sinY * sinZ + cosX * cosZ, sinX * cosY, 0.0,
+                cosX * sinY * cosZ + sinX * sinZ, cosX * sinY * sinZ - sinX * cosZ, cosX * cosY, 0.0,
+                0.0, 0.0, 0.0, 1.0
+        );
+    }
+
+    public static Matrix4 getScalingMatrix(double sX, double sY, double sZ) {
+        return new Matrix4(
+                sX, 0.0, 0.0, 0.0,
+                0.0, sY, 0.0, 0.0,
+                0.0, 0.0, sZ, 0.0,
+                0.0, 0.0, 0.0, 1.0
+        );
+    }
+
+    public static Matrix4 getTranslationMatrix(double dX, double dY, double dZ) {
+        return new Matrix4(
+                1.0, 0.0, 0.0, 0.0,
+                0.0, 1.0, 0.0, 0.0,
+                0.0, 0.0, 1.0, 0.0,
+                dX, dY, dZ, 1.0
+        );
+    }
+
+    private static Matrix4 getIdentityMatrix() {
+        return new Matrix4();
+    }
+
+    public static Matrix4 getObliqueMatrix(double l, double alpha) {
+        double cosAlpha = Math.cos(Math.toRadians(alpha));
+        double sinAlpha = Math.sin(Math.toRadians(alpha));
+
+        return new Matrix4(
+                1.0, 0.0, 0.0, 0.0,
+                0.0, 1.0, 0.0, 0.0,
+                l * cosAlpha, l * sinAlpha, 0.0, 0.0,
+                0.0, 0.0, 0.0, 1.0
+        );
+    }
+
+    public static Matrix4 getViewTransformationMatrix(double rho, double phi, double theta) {
+        double cosPhi = Math.cos(phi);
+        double sinPhi = Math.sin(phi);
+        double cosTheta = Math.cos(theta);
+        double sinTheta = Math.sin(theta);
+
+        return new Matrix4(
+                -sinTheta, -cosPhi * cosTheta, -sinPhi * cosTheta, 0.0,
+                cosTheta, -cosPhi * sinPhi, -sinPhi * sinTheta, 0.0,
+                0.0, sinPhi, -cosPhi, 0.0,
+                0.0, 0.0, rho, 1.0
+        );
+    }
+
+    /**
+     * Upper bound of how much the linear part of the matrix can stretch a length, the square root of
+     * the product of its largest absolute row and column sums. Bounding spheres are scaled by it.
+     */
+    public static double getScaleBound(Matrix4 matrix) {
+        double maxRowSum = 0;
+        double maxColumnSum = 0;
+
+        for (int i = 0; i < 3; i++) {
+            double rowSum = 0;
+            double columnSum = 0;
+
+            for (int j = 0; j < 3; j++) {
+                rowSum += Math.abs(matrix.get(i, j));
+                columnSum += Math.abs(matrix.get(j, i));
             }
-        }
 
-        return matrixC;
-    }
-
-    public static double[][] getRotationMatrix(double rX, double rY, double rZ) {
-        double[][] xRotationMatrix = getXRotationMatrix(rX);
-        double[][] yRotationMatrix = getYRotationMatrix(rY);
-        double[][] zRotationMatrix = getZRotationMatrix(rZ);
-
-        return multiply(multiply(xRotationMatrix, yRotationMatrix), zRotationMatrix);
-    }
-
-    private static double[][] getXRotationMatrix(double rX) {
-        return new double[][]{
-                {1.0, 0.0, 0.0, 0.0},
-                {0.0, Math.cos(Math.toRadians(rX)), Math.sin(Math.toRadians(rX)), 0.0},
-                {0.0, -Math.sin(Math.toRadians(rX)), Math.cos(Math.toRadians(rX)), 0.0},
-                {0.0, 0.0, 0.0, 1.0}
-        };
-    }
-
-    private static double[][] getYRotationMatrix(double rY) {
-        return new double[][]{
-                {Math.cos(Math.toRadians(rY)), 0.0, -Math.sin(Math.toRadians(rY)), 0.0},
-                {0.0, 1.0, 0.0, 0.0},
-                {Math.sin(Math.toRadians(rY)), 0.0, Math.cos(Math.toRadians(rY)), 0.0},
-                {0.0, 0.0, 0.0, 1.0}
-        };
-    }
-
-    private static double[][] getZRotationMatrix(double rZ) {
-        return new double[][]{
-                {Math.cos(Math.toRadians(rZ)), Math.sin(Math.toRadians(rZ)), 0.0, 0.0},
-                {-Math.sin(Math.toRadians(rZ)), Math.cos(Math.toRadians(rZ)), 0.0, 0.0},
-                {0.0, 0.0, 1.0, 0.0},
-                {0.0, 0.0, 0.0, 1.0}
-        };
-    }
-
-    public static double[][] getScalingMatrix(double sX, double sY, double sZ) {
-        return new double[][]{
-                {sX, 0.0, 0.0, 0.0},
-                {0.0, sY, 0.0, 0.0},
-                {0.0, 0.0, sZ, 0.0},
-                {0.0, 0.0, 0.0, 1.0}
-        };
-    }
-
-    public static double[][] getTranslationMatrix(double dX, double dY, double dZ) {
-        return new double[][]{
-                {1.0, 0.0, 0.0, 0.0},
-                {0.0, 1.0, 0.0, 0.0},
-                {0.0, 0.0, 1.0, 0.0},
-                {dX, dY, dZ, 1.0}
-        };
-    }
-
-    public static double[][] getPerspectiveMatrix(double d) {
-        if (Math.abs(d) < 0.1) d = 0.1;
-
-        return new double[][]{
-                {1.0, 0.0, 0.0, 0.0},
-                {0.0, 1.0, 0.0, 0.0},
-                {0.0, 0.0, 1.0, 1.0 / d},
-                {0.0, 0.0, 0.0, 0.0}
-        };
-    }
-
-    private static double[][] getIdentityMatrix() {
-        return new double[][]{
-                {1.0, 0.0, 0.0, 0.0},
-                {0.0, 1.0, 0.0, 0.0},
-                {0.0, 0.0, 1.0, 0.0},
-                {0.0, 0.0, 0.0, 1.0}
-        };
-    }
-
-    public static double[][] getObliqueMatrix(double l, double alpha) {
-        return new double[][]{
-                {1.0, 0.0, 0.0, 0.0},
-                {0.0, 1.0, 0.0, 0.0},
-                {l * Math.cos(Math.toRadians(alpha)), l * Math.sin(Math.toRadians(alpha)), 0.0, 0.0},
-                {0.0, 0.0, 0.0, 1.0}
-        };
-    }
+            maxRowSum = Math.max(maxRowSum, rowSum);
+            maxColumnSum = Math.max(maxColumnSum, columnSum);
+        }
 
-    public static double[][] getViewTransformationMatrix(double rho, double phi, double theta) {
-        return new double[][]{
-                {-Math.sin(theta), -Math.cos(phi) * Math.cos(theta), -Math.sin(phi) * Math.cos(theta), 0.0},
-                {Math.cos(theta), -Math.cos(phi) * Math.sin(phi), -Math.sin(phi) * Math.sin(theta), 0.0},
-                {0.0, Math.sin(phi), -Math.cos(phi), 0.0},
-                {0.0, 0.0, rho, 1.0}
-        };
+        return Math.sqrt(maxRowSum * maxColumnSum);
     }
-}
+}
\ No newline at end of file
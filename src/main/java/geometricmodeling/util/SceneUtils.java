@@ -0,0 +1,63 @@
+/*
+ * Copyright (c) 2019 Nikita Sokolov. All rights reserved.
+ */
+
+package geometricmodeling.util;
+
+import geometricmodeling.model.Matrix4;
+import geometricmodeling.model.SceneGraph;
+import geometricmodeling.model.TorusInstance;
+import geometricmodeling.model.TorusMesh;
+import javafx.scene.paint.Color;
+
+public final class SceneUtils {
+    private static final double LATTICE_GAP = 1.2;
+    private static final double HUE_STEP = 360.0 / 7;
+
+    private SceneUtils() {
+    }
+
+    /**
+     * Places count x count x count copies of the mesh on a cubic grid centered at the origin,
+     * cycling the hue of the base color from instance to instance.
+     */
+    public static SceneGraph createLattice(TorusMesh mesh, int count, Color color) {
+        SceneGraph scene = new SceneGraph();
+        double spacing = 2 * (mesh.getMajorRadius() + mesh.getMinorRadius()) * LATTICE_GAP;
+        double offset = (count - 1) * spacing / 2;
+        int index = 0;
+
+        for (int i = 0; i < count; i++) {
+            for (int j = 0; j < count; j++) {
+                for (int k = 0; k < count; k++) {
+                    Matrix4 modelMatrix = MathUtils.getTranslationMatrix(
+                            i * spacing - offset, j * spacing - offset, k * spacing - offset);
+                    scene.addInstance(new TorusInstance(mesh, modelMatrix, getInstanceColor(color, index++)));
+                }
+            }
+        }
+
+        return scene;
+    }
+
+    /**
+     * Links copies of the mesh into a chain along the x axis, every second link turned by 90 degrees.
+     */
+    public static SceneGraph createChain(TorusMesh mesh, int count, Color color) {
+        SceneGraph scene = new SceneGraph();
+        double pitch = 2 * (mesh.getMajorRadius() - mesh.getMinorRadius());
+        double offset = (count - 1) * pitch / 2;
+
+        for (int i = 0; i < count; i++) {
+            Matrix4 modelMatrix = MathUtils.getRotationMatrix(i % 2 == 0 ? 90 : 0, 0, 0)
+                    .multiply(MathUtils.getTranslationMatrix(i * pitch - offset, 0, 0));
+            scene.addInstance(new TorusInstance(mesh, modelMatrix, getInstanceColor(color, i)));
+        }
+
+        return scene;
+    }
+
+    private static Color getInstanceColor(Color color, int index) {
+        return color.deriveColor(index * HUE_STEP, 1, 1, 1);
+    }
+}
@@ -4,9 +4,12 @@
 
 package geometricmodeling.util;
 
+import geometricmodeling.common.Constants;
 import geometricmodeling.model.Plane;
 import geometricmodeling.model.SortOrder;
+import geometricmodeling.model.TorusMesh;
 
+import java.util.Arrays;
 import java.util.Comparator;
 import java.util.List;
 
@@ -50,4 +53,377 @@ public final class TorusUtils {
                 throw new IllegalArgumentException("There is no such sort order.");
         }
     }
-}
+
+    /**
+     * Returns the facet indices of the mesh in painter's order without touching the facet buffer.
+     * The order equals the one of {@link #sortFacets(List, SortOrder)}: the centroid keys are
+     * extracted once and sorted with a stable LSD radix sort, tertiary key first.
+     */
+    public static int[] sortFacetIndices(TorusMesh mesh, SortOrder sortOrder) {
+        int facetCount = mesh.getFacetCount();
+        double[] centerX = new double[facetCount];
+        double[] centerY = new double[facetCount];
+        double[] centerZ = new double[facetCount];
+
+        for (int i = 0; i < facetCount; i++) {
+            centerX[i] = mesh.getCenterX(i);
+            centerY[i] = mesh.getCenterY(i);
+            centerZ[i] = mesh.getCenterZ(i);
+        }
+
+        double[][] keys;
+
+        switch (sortOrder) {
+            case X_ASCENDING:
+            case X_DESCENDING:
+                keys = new double[][]{centerZ, centerY, centerX};
+                break;
+            case Y_ASCENDING:
+            case Y_DESCENDING:
+                keys = new double[][]{centerX, centerZ, centerY};
+                break;
+            case Z_ASCENDING:
+            case Z_DESCENDING:
+                keys = new double[][]{centerY, centerX, centerZ};
+                break;
+            default:
+                throw new IllegalArgumentException("There is no such sort order.");
+        }
+
+        int[] order = new int[facetCount];
+        int[] orderBuffer = new int[facetCount];
+        long[] sortKeys = new long[facetCount];
+        long[] sortKeysBuffer = new long[facetCount];
+
+        for (int i = 0; i < facetCount; i++) {
+            order[i] = i;
+        }
+
+        for (int k = 0; k < keys.length; k++) {
+            boolean isPrimaryKey = k == keys.length - 1;
+            boolean isReversed = isPrimaryKey && isDescending(sortOrder);
+
+            for (int i = 0; i < facetCount; i++) {
+                long sortKey = toSortableBits(keys[k][order[i]]);
+                sortKeys[i] = isReversed ? ~sortKey : sortKey;
+            }
+
+            radixSort(order, orderBuffer, sortKeys, sortKeysBuffer);
+        }
+
+        return order;
+    }
+
+    private static long toSortableBits(double value) {
+        long bits = Double.doubleToLongBits(value);
+        return bits ^ ((bits >> 63) | Long.MIN_VALUE);
+    }
+
+    private static void radixSort(int[] order, int[] orderBuffer, long[] sortKeys, long[] sortKeysBuffer) {
+        int size = order.length;
+
+        if (size == 0) {
+            return;
+        }
+
+        int[][] counts = new int[Long.BYTES][256];
+
+        for (int i = 0; i < size; i++) {
+            long sortKey = sortKeys[i];
+
+            for (int pass = 0; pass < Long.BYTES; pass++) {
+                counts[pass][(int) (sortKey >>> (pass * 8)) & 0xFF]++;
+            }
+        }
+
+        int[] sourceOrder = order;
+        int[] targetOrder = orderBuffer;
+        long[] sourceKeys = sortKeys;
+        long[] targetKeys = sortKeysBuffer;
+
+        for (int pass = 0; pass < Long.BYTES; pass++) {
+            int[] count = counts[pass];
+            int shift = pass * 8;
+
+            if (count[(int) (sourceKeys[0] >>> shift) & 0xFF] == size) {
+                continue;
+            }
+
+            int position = 0;
+
+            for (int digit = 0; digit < count.length; digit++) {
+                int digitCount = count[digit];
+                count[digit] = position;
+                position += digitCount;
+            }
+
+            for (int i = 0; i < size; i++) {
+                int target = count[(int) (sourceKeys[i] >>> shift) & 0xFF]++;
+                targetOrder[target] = sourceOrder[i];
+                targetKeys[target] = sourceKeys[i];
+            }
+
+            int[] swapOrder = sourceOrder;
+            sourceOrder = targetOrder;
+            targetOrder = swapOrder;
+            long[] swapKeys = sourceKeys;
+            sourceKeys = targetKeys;
+            targetKeys = swapKeys;
+        }
+
+        if (sourceOrder != order) {
+            System.arraycopy(sourceOrder, 0, order, 0, size);
+        }
+    }
+
+    public static TorusMesh cullBackFacets(TorusMesh mesh, SortOrder viewOrder) {
+        double[] x = mesh.getX();
+        double[] y = mesh.getY();
+        double[] z = mesh.getZ();
+        int[] facets = mesh.getFacets();
+        int[] visibleFacets = new int[facets.length];
+        FacetNormals facetNormals = new FacetNormals(mesh, mesh.getFacetCount());
+        int size = 0;
+
+        for (int offset = 0; offset < facets.length; offset += TorusMesh.VERTICES_PER_FACET) {
+            int a = facets[offset];
+            int b = facets[offset + 1];
+            int c = facets[offset + 2];
+            int d = facets[offset + 3];
+
+            if (isFrontFacing(x, y, z, a, b, c, d, viewOrder)) {
+                facetNormals.copy(offset / TorusMesh.VERTICES_PER_FACET, size / TorusMesh.VERTICES_PER_FACET);
+                System.arraycopy(facets, offset, visibleFacets, size, TorusMesh.VERTICES_PER_FACET);
+                size += TorusMesh.VERTICES_PER_FACET;
+            }
+        }
+
+        TorusMesh.Builder builder = new TorusMesh.Builder()
+                .minorRadius(mesh.getMinorRadius())
+                .minorAngle(mesh.getMinorAngle())
+                .majorRadius(mesh.getMajorRadius())
+                .majorAngle(mesh.getMajorAngle())
+                .vertices(x, y, z)
+                .normals(mesh.getNormalX(), mesh.getNormalY(), mesh.getNormalZ())
+                .facets(Arrays.copyOf(visibleFacets, size));
+
+        facetNormals.build(builder, size / TorusMesh.VERTICES_PER_FACET);
+        return builder.build();
+    }
+
+    /**
+     * Tells whether the quad (a, b, c, d) faces the viewer looking along the axis of the view order.
+     */
+    public static boolean isFrontFacing(double[] x, double[] y, double[] z, int a, int b, int c, int d,
+                                        SortOrder viewOrder) {
+        // the cross product of the quad diagonals points along the outward normal
+        double normal;
+
+        switch (viewOrder) {
+            case X_ASCENDING:
+            case X_DESCENDING:
+                normal = (y[c] - y[a]) * (z[d] - z[b]) - (z[c] - z[a]) * (y[d] - y[b]);
+                break;
+            case Y_ASCENDING:
+            case Y_DESCENDING:
+                normal = (z[c] - z[a]) * (x[d] - x[b]) - (x[c] - x[a]) * (z[d] - z[b]);
+                break;
+            case Z_ASCENDING:
+            case Z_DESCENDING:
+                normal = (x[c] - x[a]) * (y[d] - y[b]) - (y[c] - y[a]) * (x[d] - x[b]);
+                break;
+            default:
+                throw new IllegalArgumentException("There is no such sort order.");
+        }
+
+        return isDescending(viewOrder) ? normal < 0 : normal > 0;
+    }
+
+    private static boolean isDescending(SortOrder sortOrder) {
+        return sortOrder == SortOrder.X_DESCENDING
+                || sortOrder == SortOrder.Y_DESCENDING
+                || sortOrder == SortOrder.Z_DESCENDING;
+    }
+
+    /**
+     * The depth a perspective without a view transformation divides by: the distance from the xy plane,
+     * never below the near plane, so a model around the origin is projected whole instead of clipped.
+     */
+    public static double getUnclippedDepth(double z) {
+        return Math.max(Math.abs(z), Constants.NEAR_PLANE);
+    }
+
+    /**
+     * Clips view-space facets against the near plane {@code z = near}, the camera looks down the
+     * positive z axis as in the perspective and view transformation matrices. Facets entirely in front
+     * of the plane are kept as they are, facets behind it are dropped and crossing facets are cut,
+     * the new vertices are appended to the vertex arrays with interpolated normals.
+     * A clipped polygon with three or five corners is stored as one or two quads with a repeated corner.
+     */
+    public static TorusMesh clipNearPlane(TorusMesh mesh, double near) {
+        double[] x = mesh.getX();
+        double[] y = mesh.getY();
+        double[] z = mesh.getZ();
+        int[] facets = mesh.getFacets();
+
+        int vertexCount = mesh.getVertexCount();
+        int crossingFacets = 0;
+        boolean isAnyFacetDropped = false;
+
+        for (int offset = 0; offset < facets.length; offset += TorusMesh.VERTICES_PER_FACET) {
+            int inside = countInside(z, facets, offset, near);
+
+            if (inside == 0) {
+                isAnyFacetDropped = true;
+            } else if (inside < TorusMesh.VERTICES_PER_FACET) {
+                crossingFacets++;
+            }
+        }
+
+        if (crossingFacets == 0 && !isAnyFacetDropped) {
+            return mesh;
+        }
+
+        // every crossing facet adds two vertices and at most one extra quad
+        int maxVertexCount = vertexCount + crossingFacets * 2;
+        double[] newX = Arrays.copyOf(x, maxVertexCount);
+        double[] newY = Arrays.copyOf(y, maxVertexCount);
+        double[] newZ = Arrays.copyOf(z, maxVertexCount);
+        double[] normalX = mesh.getNormalX();
+        double[] normalY = mesh.getNormalY();
+        double[] normalZ = mesh.getNormalZ();
+        double[] newNormalX = mesh.hasNormals() ? Arrays.copyOf(normalX, maxVertexCount) : null;
+        double[] newNormalY = mesh.hasNormals() ? Arrays.copyOf(normalY, maxVertexCount) : null;
+        double[] newNormalZ = mesh.hasNormals() ? Arrays.copyOf(normalZ, maxVertexCount) : null;
+        int[] newFacets = new int[facets.length + crossingFacets * TorusMesh.VERTICES_PER_FACET];
+        FacetNormals facetNormals = new FacetNormals(mesh, newFacets.length / TorusMesh.VERTICES_PER_FACET);
+        int[] polygon = new int[TorusMesh.VERTICES_PER_FACET + 1];
+        int newVertexCount = vertexCount;
+        int size = 0;
+
+        for (int offset = 0; offset < facets.length; offset += TorusMesh.VERTICES_PER_FACET) {
+            int inside = countInside(z, facets, offset, near);
+
+            int facet = offset / TorusMesh.VERTICES_PER_FACET;
+
+            if (inside == TorusMesh.VERTICES_PER_FACET) {
+                facetNormals.copy(facet, size / TorusMesh.VERTICES_PER_FACET);
+                System.arraycopy(facets, offset, newFacets, size, TorusMesh.VERTICES_PER_FACET);
+                size += TorusMesh.VERTICES_PER_FACET;
+                continue;
+            }
+
+            if (inside == 0) {
+                continue;
+            }
+
+            int corners = 0;
+
+            for (int i = 0; i < TorusMesh.VERTICES_PER_FACET; i++) {
+                int current = facets[offset + i];
+                int previous = facets[offset + (i + TorusMesh.VERTICES_PER_FACET - 1) % TorusMesh.VERTICES_PER_FACET];
+                boolean isCurrentInside = z[current] >= near;
+                boolean isPreviousInside = z[previous] >= near;
+
+                if (isCurrentInside != isPreviousInside) {
+                    double t = (near - z[previous]) / (z[current] - z[previous]);
+                    newX[newVertexCount] = x[previous] + (x[current] - x[previous]) * t;
+                    newY[newVertexCount] = y[previous] + (y[current] - y[previous]) * t;
+                    newZ[newVertexCount] = near;
+
+                    if (newNormalX != null) {
+                        newNormalX[newVertexCount] = normalX[previous] + (normalX[current] - normalX[previous]) * t;
+                        newNormalY[newVertexCount] = normalY[previous] + (normalY[current] - normalY[previous]) * t;
+                        newNormalZ[newVertexCount] = normalZ[previous] + (normalZ[current] - normalZ[previous]) * t;
+                    }
+
+                    polygon[corners++] = newVertexCount++;
+                }
+
+                if (isCurrentInside) {
+                    polygon[corners++] = current;
+                }
+            }
+
+            facetNormals.copy(facet, size / TorusMesh.VERTICES_PER_FACET);
+            newFacets[size++] = polygon[0];
+            newFacets[size++] = polygon[1];
+            newFacets[size++] = polygon[2];
+            newFacets[size++] = corners > 3 ? polygon[3] : polygon[2];
+
+            if (corners > 4) {
+                facetNormals.copy(facet, size / TorusMesh.VERTICES_PER_FACET);
+                newFacets[size++] = polygon[0];
+                newFacets[size++] = polygon[3];
+                newFacets[size++] = polygon[4];
+                newFacets[size++] = polygon[4];
+            }
+        }
+
+        TorusMesh.Builder builder = new TorusMesh.Builder()
+                .minorRadius(mesh.getMinorRadius())
+                .minorAngle(mesh.getMinorAngle())
+                .majorRadius(mesh.getMajorRadius())
+                .majorAngle(mesh.getMajorAngle())
+                .vertices(Arrays.copyOf(newX, newVertexCount), Arrays.copyOf(newY, newVertexCount),
+                        Arrays.copyOf(newZ, newVertexCount))
+                .facets(Arrays.copyOf(newFacets, size));
+
+        if (newNormalX != null) {
+            builder.normals(Arrays.copyOf(newNormalX, newVertexCount), Arrays.copyOf(newNormalY, newVertexCount),
+                    Arrays.copyOf(newNormalZ, newVertexCount));
+        }
+
+        facetNormals.build(builder, size / TorusMesh.VERTICES_PER_FACET);
+        return builder.build();
+    }
+
+    private static int countInside(double[] z, int[] facets, int offset, double near) {
+        int inside = 0;
+
+        for (int i = 0; i < TorusMesh.VERTICES_PER_FACET; i++) {
+            if (z[facets[offset + i]] >= near) {
+                inside++;
+            }
+        }
+
+        return inside;
+    }
+
+    /**
+     * Collects the facet normals of the facets kept by culling or clipping, a clipped facet keeps
+     * the normal of its source facet. Does nothing for meshes without facet normals.
+     */
+    private static class FacetNormals {
+        private final double[] sourceX;
+        private final double[] sourceY;
+        private final double[] sourceZ;
+        private final double[] x;
+        private final double[] y;
+        private final double[] z;
+
+        private FacetNormals(TorusMesh mesh, int maxFacetCount) {
+            this.sourceX = mesh.getFacetNormalX();
+            this.sourceY = mesh.getFacetNormalY();
+            this.sourceZ = mesh.getFacetNormalZ();
+            this.x = mesh.hasFacetNormals() ? new double[maxFacetCount] : null;
+            this.y = mesh.hasFacetNormals() ? new double[maxFacetCount] : null;
+            this.z = mesh.hasFacetNormals() ? new double[maxFacetCount] : null;
+        }
+
+        private void copy(int sourceFacet, int facet) {
+            if (x != null) {
+                x[facet] = sourceX[sourceFacet];
+                y[facet] = sourceY[sourceFacet];
+                z[facet] = sourceZ[sourceFacet];
+            }
+        }
+
+        private void build(TorusMesh.Builder builder, int facetCount) {
+            if (x != null) {
+                builder.facetNormals(Arrays.copyOf(x, facetCount), Arrays.copyOf(y, facetCount),
+                        Arrays.copyOf(z, facetCount));
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2019 Nikita Sokolov. All rights reserved.
+ */
+
+package geometricmodeling.util;
+
+import geometricmodeling.common.Constants;
+import geometricmodeling.model.PlaneType;
+import geometricmodeling.model.Point;
+import geometricmodeling.model.Projection;
+import geometricmodeling.model.SortOrder;
+import geometricmodeling.model.Viewport;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public final class ViewportUtils {
+    private ViewportUtils() {
+    }
+
+    public static List<Viewport> getViewports(Projection projection, double width, double height) {
+        Point center = new Point(width / 2, height / 2, 0);
+
+        switch (projection) {
+            case OBLIQUE:
+            case PERSPECTIVE:
+                return Collections.singletonList(
+                        new Viewport(center, PlaneType.XOY, SortOrder.Z_DESCENDING, Constants.DEFAULT_SCALE));
+            case AXONOMETRIC:
+                return Collections.singletonList(
+                        new Viewport(center, PlaneType.XOY, SortOrder.Z_ASCENDING, Constants.DEFAULT_SCALE));
+            case ORTHOGONAL:
+                double centerX = center.getX();
+                double centerY = center.getY();
+                double canvasQuarterX = width / 4;
+                double canvasQuarterY = height / 4;
+
+                Point frontCenter = new Point(centerX - canvasQuarterX, centerY - canvasQuarterY, 0);
+                Point sideCenter = new Point(centerX + canvasQuarterX, centerY - canvasQuarterY, 0);
+                Point topCenter = new Point(centerX - canvasQuarterX, centerY + canvasQuarterY, 0);
+
+                double scaleCoefficient = Constants.DEFAULT_SCALE / 2;
+
+                return Arrays.asList(
+                        new Viewport(frontCenter, PlaneType.XOY, SortOrder.Z_ASCENDING, scaleCoefficient),
+                        new Viewport(sideCenter, PlaneType.ZOY, SortOrder.X_ASCENDING, scaleCoefficient),
+                        new Viewport(topCenter, PlaneType.XOZ, SortOrder.Y_ASCENDING, scaleCoefficient));
+            default:
+                throw new IllegalArgumentException("There is no such projection.");
+        }
+    }
+
+    public static double getScreenX(Viewport viewport, double x, double z) {
+        switch (viewport.getPlaneType()) {
+            case XOY:
+            case XOZ:
+                return viewport.getCenter().getX() + x * viewport.getScale();
+            case ZOY:
+                return viewport.getCenter().getX() + z * viewport.getScale();
+            default:
+                throw new IllegalArgumentException("There is no such plane type.");
+        }
+    }
+
+    public static double getScreenY(Viewport viewport, double y, double z) {
+        switch (viewport.getPlaneType()) {
+            case XOY:
+            case ZOY:
+                return viewport.getCenter().getY() + y * -viewport.getScale();
+            case XOZ:
+                return viewport.getCenter().getY() + z * -viewport.getScale();
+            default:
+                throw new IllegalArgumentException("There is no such plane type.");
+        }
+    }
+
+    /**
+     * Returns the depth along the view axis, growing towards the viewer like the painter's order.
+     */
+    public static double getDepth(SortOrder depthOrder, double x, double y, double z) {
+        switch (depthOrder) {
+            case X_ASCENDING:
+                return x;
+            case X_DESCENDING:
+                return -x;
+            case Y_ASCENDING:
+                return y;
+            case Y_DESCENDING:
+                return -y;
+            case Z_ASCENDING:
+                return z;
+            case Z_DESCENDING:
+                return -z;
+            default:
+                throw new IllegalArgumentException("There is no such sort order.");
+        }
+    }
+}
\ No newline at end of file
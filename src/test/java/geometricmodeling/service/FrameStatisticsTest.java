@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) 2019 Nikita Sokolov. All rights reserved.
+ */
+
+package geometricmodeling.service;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class FrameStatisticsTest {
+    private static final double DELTA = 1e-9;
+    private static final long NANOS_PER_MILLISECOND = 1_000_000;
+
+    @Test
+    public void returnsNearestRankPercentiles() {
+        FrameStatistics frameStatistics = new FrameStatistics(16);
+
+        // recorded out of order, the percentiles must not depend on it
+        for (long frameTime : new long[]{7, 3, 10, 1, 9, 2, 8, 5, 4, 6}) {
+            frameStatistics.record(0, frameTime);
+        }
+
+        assertEquals(1, frameStatistics.getFrameTimePercentile(0));
+        assertEquals(1, frameStatistics.getFrameTimePercentile(10));
+        assertEquals(5, frameStatistics.getFrameTimePercentile(50));
+        assertEquals(6, frameStatistics.getFrameTimePercentile(51));
+        assertEquals(9, frameStatistics.getFrameTimePercentile(90));
+        assertEquals(10, frameStatistics.getFrameTimePercentile(99));
+        assertEquals(10, frameStatistics.getFrameTimePercentile(100));
+    }
+
+    @Test
+    public void keepsOnlyLatestFrames() {
+        FrameStatistics frameStatistics = new FrameStatistics(4);
+
+        for (long frameTime = 1; frameTime <= 6; frameTime++) {
+            frameStatistics.record(frameTime * NANOS_PER_MILLISECOND, frameTime);
+        }
+
+        assertEquals(4, frameStatistics.getSize());
+        assertEquals(6, frameStatistics.getLastFrameTime());
+        assertEquals(4.5, frameStatistics.getAverageFrameTime(), DELTA);
+        assertEquals(3, frameStatistics.getFrameTimePercentile(0));
+        assertEquals(4, frameStatistics.getFrameTimePercentile(50));
+        assertEquals(6, frameStatistics.getFrameTimePercentile(99));
+        assertEquals(1000, frameStatistics.getFramesPerSecond(), DELTA);
+    }
+
+    @Test
+    public void returnsZeroWithoutFrames() {
+        FrameStatistics frameStatistics = new FrameStatistics(4);
+        frameStatistics.record(0, 5);
+        frameStatistics.reset();
+
+        assertEquals(0, frameStatistics.getSize());
+        assertEquals(0, frameStatistics.getLastFrameTime());
+        assertEquals(0, frameStatistics.getAverageFrameTime(), DELTA);
+        assertEquals(0, frameStatistics.getFrameTimePercentile(99));
+        assertEquals(0, frameStatistics.getFramesPerSecond(), DELTA);
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2019 Nikita Sokolov. All rights reserved.
+ */
+
+package geometricmodeling.service;
+
+import geometricmodeling.model.SurfaceType;
+import geometricmodeling.model.TorusMesh;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+public class MeshCacheTest {
+    private static final double ANGLE = 30;
+
+    /**
+     * Meshes with the same angles have the same size whatever their radii.
+     */
+    private static final long MESH_BYTES = new TorusBuilder(10, ANGLE, 40, ANGLE).buildMesh().getEstimatedBytes();
+
+    @Test
+    public void returnsCachedMesh() {
+        MeshCache meshCache = new MeshCache(MESH_BYTES);
+        TorusMesh mesh = meshCache.get(10, ANGLE, 40, ANGLE);
+
+        assertSame(mesh, meshCache.get(10, ANGLE, 40, ANGLE));
+        assertEquals(1, meshCache.getHitCount());
+        assertEquals(1, meshCache.getMissCount());
+        assertEquals(MESH_BYTES, meshCache.getBytes());
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsedMeshByBytes() {
+        MeshCache meshCache = new MeshCache(2 * MESH_BYTES);
+        TorusMesh first = meshCache.get(10, ANGLE, 40, ANGLE);
+        TorusMesh second = meshCache.get(20, ANGLE, 40, ANGLE);
+
+        assertSame(first, meshCache.get(10, ANGLE, 40, ANGLE));
+        meshCache.get(30, ANGLE, 40, ANGLE);
+
+        assertEquals(2, meshCache.getSize());
+        assertEquals(2 * MESH_BYTES, meshCache.getBytes());
+        assertEquals(1, meshCache.getEvictionCount());
+        assertSame(first, meshCache.get(10, ANGLE, 40, ANGLE));
+        assertNotSame(second, meshCache.get(20, ANGLE, 40, ANGLE));
+        assertEquals(2, meshCache.getEvictionCount());
+    }
+
+    @Test
+    public void evictsSeveralSmallMeshesForLargeOne() {
+        MeshCache meshCache = new MeshCache(4 * MESH_BYTES);
+        meshCache.get(10, ANGLE, 40, ANGLE);
+        meshCache.get(20, ANGLE, 40, ANGLE);
+        meshCache.get(30, ANGLE, 40, ANGLE);
+
+        TorusMesh large = meshCache.get(10, ANGLE / 2, 40, ANGLE / 2);
+
+        assertEquals(3, meshCache.getEvictionCount());
+        assertEquals(1, meshCache.getSize());
+        assertEquals(large.getEstimatedBytes(), meshCache.getBytes());
+    }
+
+    @Test
+    public void doesNotKeepMeshLargerThanCache() {
+        MeshCache meshCache = new MeshCache(MESH_BYTES - 1);
+        TorusMesh mesh = meshCache.get(10, ANGLE, 40, ANGLE);
+
+        assertEquals(MESH_BYTES, mesh.getEstimatedBytes());
+        assertEquals(0, meshCache.getSize());
+        assertEquals(0, meshCache.getBytes());
+    }
+
+    @Test
+    public void keysMeshesBySurfaceType() {
+        MeshCache meshCache = new MeshCache(4 * MESH_BYTES);
+        TorusMesh torus = meshCache.get(SurfaceType.TORUS, 10, ANGLE, 40, ANGLE);
+
+        assertNotSame(torus, meshCache.get(SurfaceType.SPHERE, 10, ANGLE, 40, ANGLE));
+        assertSame(torus, meshCache.get(10, ANGLE, 40, ANGLE));
+    }
+}
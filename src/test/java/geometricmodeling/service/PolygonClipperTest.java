@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2019 Nikita Sokolov. All rights reserved.
+ */
+
+package geometricmodeling.service;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class PolygonClipperTest {
+    private static final double DELTA = 1e-9;
+    private static final double SIZE = 100;
+
+    private final PolygonClipper clipper = new PolygonClipper(0, 0, SIZE, SIZE);
+
+    @Test
+    public void keepsQuadInside() {
+        double[] x = {10, 20, 20, 10};
+        double[] y = {10, 10, 20, 20};
+
+        assertEquals(4, clipper.clip(x, y, null, 4));
+        assertArrayEquals(x, copy(clipper.getX(), 4), DELTA);
+        assertArrayEquals(y, copy(clipper.getY(), 4), DELTA);
+    }
+
+    @Test
+    public void rejectsQuadOutside() {
+        assertEquals(0, clipper.clip(new double[]{-20, -10, -10, -20}, new double[]{10, 10, 20, 20}, null, 4));
+    }
+
+    @Test
+    public void clipsQuadStraddlingEdge() {
+        double[] x = {-50, 50, 50, -50};
+        double[] y = {10, 10, 20, 20};
+        double[] depth = {-50, 50, 50, -50};
+
+        int size = clipper.clip(x, y, depth, 4);
+
+        assertEquals(4, size);
+        assertInside(size);
+        assertEquals(50 * 10, getArea(size), DELTA);
+
+        for (int i = 0; i < size; i++) {
+            // the depth is linear in x, so it must stay equal to x along the cut
+            assertEquals(clipper.getX()[i], clipper.getDepth()[i], DELTA);
+        }
+    }
+
+    @Test
+    public void clipsQuadStraddlingCorner() {
+        double[] x = {-10, 10, 10, -10};
+        double[] y = {-10, -10, 10, 10};
+        double[] shade = {0, 1, 1, 0};
+
+        int size = clipper.clip(x, y, null, shade, 4);
+
+        assertEquals(4, size);
+        assertInside(size);
+        assertEquals(10 * 10, getArea(size), DELTA);
+
+        for (int i = 0; i < size; i++) {
+            assertEquals((clipper.getX()[i] + 10) / 20, clipper.getShade()[i], DELTA);
+        }
+    }
+
+    @Test
+    public void clipsTriangleAcrossTwoEdgesIntoPentagon() {
+        double[] x = {50, 130, 50};
+        double[] y = {50, 50, 130};
+
+        int size = clipper.clip(x, y, null, 3);
+
+        assertEquals(5, size);
+        assertInside(size);
+        assertEquals(80 * 80 / 2 - 2 * 30 * 30 / 2, getArea(size), DELTA);
+    }
+
+    private void assertInside(int size) {
+        for (int i = 0; i < size; i++) {
+            double x = clipper.getX()[i];
+            double y = clipper.getY()[i];
+            assertTrue("(" + x + ", " + y + ") is outside", x >= -DELTA && x <= SIZE + DELTA
+                    && y >= -DELTA && y <= SIZE + DELTA);
+        }
+    }
+
+    private double getArea(int size) {
+        double doubleArea = 0;
+
+        for (int i = 0; i < size; i++) {
+            int next = (i + 1) % size;
+            doubleArea += clipper.getX()[i] * clipper.getY()[next] - clipper.getX()[next] * clipper.getY()[i];
+        }
+
+        return Math.abs(doubleArea) / 2;
+    }
+
+    private static double[] copy(double[] values, int size) {
+        double[] copy = new double[size];
+        System.arraycopy(values, 0, copy, 0, size);
+        return copy;
+    }
+}
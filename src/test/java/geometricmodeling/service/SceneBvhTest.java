@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2019 Nikita Sokolov. All rights reserved.
+ */
+
+package geometricmodeling.service;
+
+import geometricmodeling.common.Constants;
+import geometricmodeling.model.Matrix4;
+import geometricmodeling.model.Projection;
+import geometricmodeling.model.SceneGraph;
+import geometricmodeling.model.TorusInstance;
+import geometricmodeling.model.TorusMesh;
+import geometricmodeling.model.Viewport;
+import geometricmodeling.util.MathUtils;
+import geometricmodeling.util.SceneUtils;
+import geometricmodeling.util.ViewportUtils;
+import javafx.scene.paint.Color;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class SceneBvhTest {
+    private static final TorusMesh MESH = new TorusBuilder(20, 30, 60, 30).buildMesh();
+
+    /**
+     * Median splits halve every node down to leaves of at most four instances: 64 instances make
+     * 16 leaves and a complete tree of 31 nodes.
+     */
+    @Test
+    public void splitsAtMedian() {
+        SceneBvh sceneBvh = new SceneBvh(SceneUtils.createLattice(MESH, 4, Color.DODGERBLUE));
+
+        assertEquals(64, sceneBvh.getInstanceCount());
+        assertEquals(31, sceneBvh.getNodeCount());
+    }
+
+    @Test
+    public void collectsSameInstancesAsTestingEachOne() {
+        SceneGraph scene = SceneUtils.createLattice(MESH, 4, Color.DODGERBLUE);
+        SceneBvh sceneBvh = new SceneBvh(scene);
+        Viewport viewport = ViewportUtils.getViewports(Projection.AXONOMETRIC,
+                Constants.CANVAS_WIDTH, Constants.CANVAS_HEIGHT).get(0);
+        ViewVolume viewVolume = new ViewVolume(viewport, Constants.CANVAS_WIDTH, Constants.CANVAS_HEIGHT, 0);
+        int[] visible = new int[scene.getInstanceCount()];
+
+        for (double offset = -1500; offset <= 1500; offset += 250) {
+            Matrix4 sceneMatrix = MathUtils.getRotationMatrix(30, 20, 0)
+                    .multiply(MathUtils.getTranslationMatrix(offset, offset / 2, 0));
+            int[] expected = collectEach(scene, sceneMatrix, viewVolume);
+            int visibleCount = sceneBvh.collectVisible(sceneMatrix, viewVolume, visible);
+
+            assertArrayEquals("offset " + offset, expected, Arrays.copyOf(visible, visibleCount));
+        }
+    }
+
+    @Test
+    public void rejectsSceneOutsideViewVolume() {
+        SceneGraph scene = SceneUtils.createLattice(MESH, 4, Color.DODGERBLUE);
+        Viewport viewport = ViewportUtils.getViewports(Projection.AXONOMETRIC,
+                Constants.CANVAS_WIDTH, Constants.CANVAS_HEIGHT).get(0);
+        ViewVolume viewVolume = new ViewVolume(viewport, Constants.CANVAS_WIDTH, Constants.CANVAS_HEIGHT, 0);
+
+        int visibleCount = new SceneBvh(scene).collectVisible(MathUtils.getTranslationMatrix(100_000, 0, 0),
+                viewVolume, new int[scene.getInstanceCount()]);
+
+        assertEquals(0, visibleCount);
+    }
+
+    /**
+     * Tests the bounding sphere of every instance on its own, as the leaves of the hierarchy do.
+     */
+    private static int[] collectEach(SceneGraph scene, Matrix4 sceneMatrix, ViewVolume viewVolume) {
+        List<TorusInstance> instances = scene.getInstances();
+        double scaleBound = MathUtils.getScaleBound(sceneMatrix);
+        int[] visible = new int[instances.size()];
+        int visibleCount = 0;
+
+        for (int i = 0; i < instances.size(); i++) {
+            Matrix4 modelMatrix = instances.get(i).getModelMatrix();
+            double x = modelMatrix.get(3, 0);
+            double y = modelMatrix.get(3, 1);
+            double z = modelMatrix.get(3, 2);
+            double radius = (MESH.getMajorRadius() + MESH.getMinorRadius()) * MathUtils.getScaleBound(modelMatrix);
+
+            double viewX = x * sceneMatrix.get(0, 0) + y * sceneMatrix.get(1, 0) + z * sceneMatrix.get(2, 0)
+                    + sceneMatrix.get(3, 0);
+            double viewY = x * sceneMatrix.get(0, 1) + y * sceneMatrix.get(1, 1) + z * sceneMatrix.get(2, 1)
+                    + sceneMatrix.get(3, 1);
+            double viewZ = x * sceneMatrix.get(0, 2) + y * sceneMatrix.get(1, 2) + z * sceneMatrix.get(2, 2)
+                    + sceneMatrix.get(3, 2);
+
+            if (viewVolume.intersectsSphere(viewX, viewY, viewZ, radius * scaleBound)) {
+                visible[visibleCount++] = i;
+            }
+        }
+
+        return Arrays.copyOf(visible, visibleCount);
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright (c) 2019 Nikita Sokolov. All rights reserved.
+ */
+
+package geometricmodeling.util;
+
+import geometricmodeling.common.Constants;
+import geometricmodeling.model.Line;
+import geometricmodeling.model.Plane;
+import geometricmodeling.model.Point;
+import geometricmodeling.model.SortOrder;
+import geometricmodeling.model.TorusMesh;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class TorusUtilsTest {
+    private static final double DELTA = 1e-9;
+
+    /**
+     * Integer coordinates keep both centroids exact, so the many equal keys exercise the tie-breaking.
+     */
+    @Test
+    public void sortFacetIndicesMatchesSortFacets() {
+        Random random = new Random(42);
+        int vertexCount = 64;
+        int facetCount = 500;
+        double[] x = new double[vertexCount];
+        double[] y = new double[vertexCount];
+        double[] z = new double[vertexCount];
+        List<Point> points = new ArrayList<>();
+
+        for (int i = 0; i < vertexCount; i++) {
+            x[i] = random.nextInt(7) - 3;
+            y[i] = random.nextInt(7) - 3;
+            z[i] = random.nextInt(7) - 3;
+            points.add(new Point(x[i], y[i], z[i]));
+        }
+
+        int[] facets = new int[facetCount * TorusMesh.VERTICES_PER_FACET];
+
+        for (int i = 0; i < facets.length; i++) {
+            facets[i] = random.nextInt(vertexCount);
+        }
+
+        TorusMesh mesh = new TorusMesh.Builder().vertices(x, y, z).facets(facets).build();
+
+        for (SortOrder sortOrder : SortOrder.values()) {
+            List<Plane> planes = new ArrayList<>();
+            Map<Plane, Integer> indices = new IdentityHashMap<>();
+
+            for (int facet = 0; facet < facetCount; facet++) {
+                int offset = facet * TorusMesh.VERTICES_PER_FACET;
+                Point a = points.get(facets[offset]);
+                Point b = points.get(facets[offset + 1]);
+                Point c = points.get(facets[offset + 2]);
+                Point d = points.get(facets[offset + 3]);
+                Plane plane = new Plane(new Line(a, b), new Line(b, c), new Line(c, d), new Line(d, a));
+                planes.add(plane);
+                indices.put(plane, facet);
+            }
+
+            TorusUtils.sortFacets(planes, sortOrder);
+            int[] expected = new int[facetCount];
+
+            for (int i = 0; i < facetCount; i++) {
+                expected[i] = indices.get(planes.get(i));
+            }
+
+            assertArrayEquals(sortOrder.toString(), expected, TorusUtils.sortFacetIndices(mesh, sortOrder));
+        }
+    }
+
+    @Test
+    public void clipNearPlaneKeepsFacetInFront() {
+        TorusMesh mesh = createQuad(1, 2, 3, 4);
+
+        assertSame(mesh, TorusUtils.clipNearPlane(mesh, Constants.NEAR_PLANE));
+    }
+
+    @Test
+    public void clipNearPlaneDropsFacetBehind() {
+        TorusMesh clipped = TorusUtils.clipNearPlane(createQuad(-1, -2, -3, -4), Constants.NEAR_PLANE);
+
+        assertEquals(0, clipped.getFacetCount());
+    }
+
+    @Test
+    public void clipNearPlaneCutsStraddlingQuad() {
+        TorusMesh clipped = TorusUtils.clipNearPlane(createQuad(-1, -1, 1, 1), Constants.NEAR_PLANE);
+
+        assertEquals(1, clipped.getFacetCount());
+        assertFacetInFront(clipped);
+        assertEquals(Constants.NEAR_PLANE, getMinDepth(clipped), DELTA);
+    }
+
+    @Test
+    public void clipNearPlaneCutsCornerOfQuad() {
+        TorusMesh clipped = TorusUtils.clipNearPlane(createQuad(1, -1, -1, -1), Constants.NEAR_PLANE);
+
+        assertEquals(1, clipped.getFacetCount());
+        assertFacetInFront(clipped);
+        assertEquals(Constants.NEAR_PLANE, getMinDepth(clipped), DELTA);
+    }
+
+    @Test
+    public void clipNearPlaneSplitsQuadWithOneCornerBehind() {
+        TorusMesh clipped = TorusUtils.clipNearPlane(createQuad(-1, 1, 1, 1), Constants.NEAR_PLANE);
+
+        assertEquals(2, clipped.getFacetCount());
+        assertFacetInFront(clipped);
+    }
+
+    /**
+     * A unit square in the xy plane with the given depths at its corners, counterclockwise from the origin.
+     */
+    private static TorusMesh createQuad(double zA, double zB, double zC, double zD) {
+        return new TorusMesh.Builder()
+                .vertices(new double[]{0, 1, 1, 0}, new double[]{0, 0, 1, 1}, new double[]{zA, zB, zC, zD})
+                .facets(new int[]{0, 1, 2, 3})
+                .build();
+    }
+
+    private static void assertFacetInFront(TorusMesh mesh) {
+        for (int vertex : mesh.getFacets()) {
+            assertTrue("Vertex " + vertex + " is behind the near plane",
+                    mesh.getZ()[vertex] >= Constants.NEAR_PLANE - DELTA);
+        }
+    }
+
+    private static double getMinDepth(TorusMesh mesh) {
+        double minDepth = Double.POSITIVE_INFINITY;
+
+        for (int vertex : mesh.getFacets()) {
+            minDepth = Math.min(minDepth, mesh.getZ()[vertex]);
+        }
+
+        return minDepth;
+    }
+}